@@ -0,0 +1,215 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.benchmark;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.config.CommonConfig;
+import de.markusbordihn.playercompanions.data.PlayerCompanionData;
+import de.markusbordihn.playercompanions.data.PlayerCompanionDataHelper;
+import de.markusbordihn.playercompanions.entity.type.PlayerCompanionType;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.NonNullList;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantments;
+import net.minecraftforge.fml.ModContainer;
+import net.minecraftforge.fml.ModLoadingContext;
+import net.minecraftforge.forgespi.language.IConfigurable;
+import net.minecraftforge.forgespi.language.IModInfo;
+
+/**
+ * Prepares a headless environment for the benchmarks, which includes the vanilla registries and an
+ * in-memory common config with the default values, and creates reproducible sample data.
+ */
+public class BenchmarkEnvironment {
+
+  // Fixed seed, so that all benchmark runs are using the same sample data.
+  private static final long SEED = 42L;
+  private static boolean initialized = false;
+
+  protected BenchmarkEnvironment() {}
+
+  public static synchronized void init() {
+    if (initialized) {
+      return;
+    }
+    SharedConstants.tryDetectVersion();
+    Bootstrap.bootStrap();
+
+    // Config values are only accessible after the config was loaded by the mod loader.
+    ModLoadingContext.get().setActiveContainer(new BenchmarkModContainer());
+    CommentedConfig config = CommentedConfig.inMemory();
+    CommonConfig.commonSpec.correct(config);
+    CommonConfig.commonSpec.acceptConfig(config);
+    ModLoadingContext.get().setActiveContainer(null);
+
+    // Avoid writing backups or owner files during the benchmarks.
+    CommonConfig.COMMON.dataBackupEnabled.set(false);
+    CommonConfig.COMMON.dataStoragePerOwner.set(false);
+    initialized = true;
+  }
+
+  public static Set<PlayerCompanionData> createPlayerCompanions(int companions, int owners) {
+    Random random = new Random(SEED);
+    UUID[] ownerUUIDs = new UUID[owners];
+    for (int i = 0; i < owners; i++) {
+      ownerUUIDs[i] = new UUID(random.nextLong(), random.nextLong());
+    }
+    Set<PlayerCompanionData> playerCompanions = new HashSet<>();
+    for (int i = 0; i < companions; i++) {
+      playerCompanions.add(
+          new PlayerCompanionData(createPlayerCompanionTag(random, ownerUUIDs[i % owners], i)));
+    }
+    return playerCompanions;
+  }
+
+  public static CompoundTag createPlayerCompanionTag() {
+    Random random = new Random(SEED);
+    return createPlayerCompanionTag(random, new UUID(random.nextLong(), random.nextLong()), 0);
+  }
+
+  private static CompoundTag createPlayerCompanionTag(Random random, UUID ownerUUID, int index) {
+    CompoundTag compoundTag = new CompoundTag();
+    compoundTag.putUUID(
+        PlayerCompanionData.UUID_TAG, new UUID(random.nextLong(), random.nextLong()));
+    compoundTag.putString("Name", "Companion " + index);
+    compoundTag.putString(
+        "Type", PlayerCompanionType.values()[index % PlayerCompanionType.values().length].name());
+    compoundTag.putUUID("Owner", ownerUUID);
+    compoundTag.putString("OwnerName", "Owner" + ownerUUID.toString().substring(0, 8));
+    compoundTag.putBoolean("Active", true);
+    compoundTag.put(
+        "Position",
+        NbtUtils.writeBlockPos(
+            new BlockPos(random.nextInt(10000), 64 + random.nextInt(64), random.nextInt(10000))));
+    compoundTag.putString("Level", "minecraft:dimension/minecraft:overworld");
+    compoundTag.putString("EntityDimension", "minecraft:overworld");
+    compoundTag.putInt("EntityId", index + 1);
+    compoundTag.putString("EntityType", "minecraft:wolf");
+    compoundTag.putInt("EntityExperience", random.nextInt(1000));
+    compoundTag.putInt("EntityExperienceLevel", 1 + random.nextInt(20));
+    compoundTag.putFloat("EntityHealth", 10f + random.nextInt(10));
+    compoundTag.putFloat("EntityHealthMax", 20f);
+    compoundTag.put("EntityData", createEntityDataTag(random));
+    PlayerCompanionDataHelper.saveArmorItems(compoundTag, createArmorItems());
+    PlayerCompanionDataHelper.saveHandItems(compoundTag, createHandItems());
+    PlayerCompanionDataHelper.saveInventoryItems(compoundTag, createInventoryItems());
+    return compoundTag;
+  }
+
+  private static CompoundTag createEntityDataTag(Random random) {
+    // Rough approximation of the size of a serialized companion entity.
+    CompoundTag compoundTag = new CompoundTag();
+    compoundTag.putString("id", "minecraft:wolf");
+    compoundTag.putFloat("Health", 20f);
+    compoundTag.putInt("Age", random.nextInt(24000));
+    compoundTag.putLong("UUIDMost", random.nextLong());
+    compoundTag.putLong("UUIDLeast", random.nextLong());
+    for (int i = 0; i < 32; i++) {
+      compoundTag.putInt("Data" + i, random.nextInt());
+    }
+    return compoundTag;
+  }
+
+  public static NonNullList<ItemStack> createArmorItems() {
+    NonNullList<ItemStack> armor = NonNullList.withSize(4, ItemStack.EMPTY);
+    armor.set(0, enchant(new ItemStack(Items.IRON_BOOTS)));
+    armor.set(1, new ItemStack(Items.IRON_LEGGINGS));
+    armor.set(2, enchant(new ItemStack(Items.IRON_CHESTPLATE)));
+    armor.set(3, new ItemStack(Items.IRON_HELMET));
+    return armor;
+  }
+
+  public static NonNullList<ItemStack> createHandItems() {
+    NonNullList<ItemStack> hand = NonNullList.withSize(2, ItemStack.EMPTY);
+    ItemStack sword = enchant(new ItemStack(Items.DIAMOND_SWORD));
+    sword.setHoverName(Component.literal("Benchmark Sword"));
+    hand.set(0, sword);
+    hand.set(1, new ItemStack(Items.SHIELD));
+    return hand;
+  }
+
+  public static NonNullList<ItemStack> createInventoryItems() {
+    NonNullList<ItemStack> inventory = NonNullList.withSize(16, ItemStack.EMPTY);
+    for (int i = 0; i < inventory.size(); i += 2) {
+      inventory.set(i, new ItemStack(i % 4 == 0 ? Items.BREAD : Items.COBBLESTONE, 1 + i));
+    }
+    return inventory;
+  }
+
+  private static ItemStack enchant(ItemStack itemStack) {
+    itemStack.enchant(Enchantments.UNBREAKING, 3);
+    return itemStack;
+  }
+
+  /** Minimal mod container, which is required to register the common config outside of Forge. */
+  private static class BenchmarkModContainer extends ModContainer {
+
+    BenchmarkModContainer() {
+      super(createModInfo());
+    }
+
+    private static IModInfo createModInfo() {
+      IConfigurable modConfig =
+          (IConfigurable)
+              Proxy.newProxyInstance(
+                  IConfigurable.class.getClassLoader(),
+                  new Class<?>[] {IConfigurable.class},
+                  (proxy, method, args) ->
+                      method.getReturnType() == List.class ? List.of() : Optional.empty());
+      return (IModInfo)
+          Proxy.newProxyInstance(
+              IModInfo.class.getClassLoader(),
+              new Class<?>[] {IModInfo.class},
+              (proxy, method, args) ->
+                  switch (method.getName()) {
+                    case "getModId", "getDisplayName", "getNamespace" -> Constants.MOD_ID;
+                    case "getConfig" -> modConfig;
+                    case "toString" -> Constants.MOD_ID;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> method.getReturnType() == Optional.class ? Optional.empty() : null;
+                  });
+    }
+
+    @Override
+    public boolean matches(Object mod) {
+      return false;
+    }
+
+    @Override
+    public Object getMod() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.benchmark;
+
+import de.markusbordihn.playercompanions.data.PlayerCompanionData;
+import de.markusbordihn.playercompanions.data.PlayerCompanionDataField;
+import de.markusbordihn.playercompanions.data.PlayerCompanionsServerDataClientSync;
+import de.markusbordihn.playercompanions.entity.PlayerCompanionCommand;
+import de.markusbordihn.playercompanions.network.message.MessageCommandPlayerCompanion;
+import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionData;
+import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionsData;
+import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionsDataUpdate;
+import de.markusbordihn.playercompanions.network.message.MessageSkinChange;
+import de.markusbordihn.playercompanions.skin.SkinType;
+import io.netty.buffer.Unpooled;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.network.FriendlyByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkMessageBenchmark {
+
+  // Number of companions of a single owner, which are included in the combined messages.
+  private static final int COMPANIONS = 10;
+
+  private final FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+  private MessageCommandPlayerCompanion commandMessage;
+  private MessagePlayerCompanionData companionDataMessage;
+  private MessagePlayerCompanionsData companionsDataMessage;
+  private MessagePlayerCompanionsDataUpdate companionsDataUpdateMessage;
+  private MessageSkinChange skinChangeMessage;
+  private FriendlyByteBuf commandBuffer;
+  private FriendlyByteBuf companionDataBuffer;
+  private FriendlyByteBuf companionsDataBuffer;
+  private FriendlyByteBuf companionsDataUpdateBuffer;
+  private FriendlyByteBuf skinChangeBuffer;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkEnvironment.init();
+    Set<PlayerCompanionData> playerCompanions =
+        BenchmarkEnvironment.createPlayerCompanions(COMPANIONS, 1);
+    PlayerCompanionData playerCompanion = playerCompanions.iterator().next();
+    String playerCompanionUUID = playerCompanion.getUUID().toString();
+
+    this.commandMessage =
+        new MessageCommandPlayerCompanion(playerCompanionUUID, PlayerCompanionCommand.FOLLOW);
+    this.companionDataMessage =
+        new MessagePlayerCompanionData(
+            playerCompanionUUID,
+            PlayerCompanionsServerDataClientSync.exportPlayerCompanionData(playerCompanion));
+    this.companionsDataMessage =
+        new MessagePlayerCompanionsData(
+            PlayerCompanionsServerDataClientSync.exportPlayerCompanionsData(playerCompanions));
+    this.skinChangeMessage =
+        new MessageSkinChange(
+            playerCompanion.getUUID(),
+            "Notch",
+            "",
+            new UUID(0L, 1L),
+            SkinType.PLAYER_SKIN);
+
+    // Mix of delta and full entries, like for regular updates.
+    FriendlyByteBuf updateBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    Set<PlayerCompanionDataField> changedFields =
+        EnumSet.of(
+            PlayerCompanionDataField.HEALTH,
+            PlayerCompanionDataField.POSITION,
+            PlayerCompanionDataField.STATE);
+    int entry = 0;
+    for (PlayerCompanionData playerCompanionData : playerCompanions) {
+      if (entry++ % 2 == 0) {
+        MessagePlayerCompanionsDataUpdate.writeDeltaEntry(
+            updateBuffer, playerCompanionData, changedFields);
+      } else {
+        MessagePlayerCompanionsDataUpdate.writeFullEntry(
+            updateBuffer,
+            playerCompanionData.getUUID(),
+            PlayerCompanionsServerDataClientSync.exportPlayerCompanionData(playerCompanionData));
+      }
+    }
+    byte[] updateData = new byte[updateBuffer.readableBytes()];
+    updateBuffer.readBytes(updateData);
+    updateBuffer.release();
+    this.companionsDataUpdateMessage = new MessagePlayerCompanionsDataUpdate(entry, updateData);
+
+    // Pre-encoded messages for the decode benchmarks.
+    this.commandBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    MessageCommandPlayerCompanion.encode(this.commandMessage, this.commandBuffer);
+    this.companionDataBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    MessagePlayerCompanionData.encode(this.companionDataMessage, this.companionDataBuffer);
+    this.companionsDataBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    MessagePlayerCompanionsData.encode(this.companionsDataMessage, this.companionsDataBuffer);
+    this.companionsDataUpdateBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    MessagePlayerCompanionsDataUpdate.encode(
+        this.companionsDataUpdateMessage, this.companionsDataUpdateBuffer);
+    this.skinChangeBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    MessageSkinChange.encode(this.skinChangeMessage, this.skinChangeBuffer);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.buffer.release();
+    this.commandBuffer.release();
+    this.companionDataBuffer.release();
+    this.companionsDataBuffer.release();
+    this.companionsDataUpdateBuffer.release();
+    this.skinChangeBuffer.release();
+  }
+
+  private FriendlyByteBuf clearBuffer() {
+    this.buffer.clear();
+    return this.buffer;
+  }
+
+  private static FriendlyByteBuf rewind(FriendlyByteBuf buffer) {
+    buffer.readerIndex(0);
+    return buffer;
+  }
+
+  @Benchmark
+  public FriendlyByteBuf encodeCommandPlayerCompanion() {
+    FriendlyByteBuf output = clearBuffer();
+    MessageCommandPlayerCompanion.encode(this.commandMessage, output);
+    return output;
+  }
+
+  @Benchmark
+  public MessageCommandPlayerCompanion decodeCommandPlayerCompanion() {
+    return MessageCommandPlayerCompanion.decode(rewind(this.commandBuffer));
+  }
+
+  @Benchmark
+  public FriendlyByteBuf encodePlayerCompanionData() {
+    FriendlyByteBuf output = clearBuffer();
+    MessagePlayerCompanionData.encode(this.companionDataMessage, output);
+    return output;
+  }
+
+  @Benchmark
+  public MessagePlayerCompanionData decodePlayerCompanionData() {
+    return MessagePlayerCompanionData.decode(rewind(this.companionDataBuffer));
+  }
+
+  @Benchmark
+  public FriendlyByteBuf encodePlayerCompanionsData() {
+    FriendlyByteBuf output = clearBuffer();
+    MessagePlayerCompanionsData.encode(this.companionsDataMessage, output);
+    return output;
+  }
+
+  @Benchmark
+  public MessagePlayerCompanionsData decodePlayerCompanionsData() {
+    return MessagePlayerCompanionsData.decode(rewind(this.companionsDataBuffer));
+  }
+
+  @Benchmark
+  public FriendlyByteBuf encodePlayerCompanionsDataUpdate() {
+    FriendlyByteBuf output = clearBuffer();
+    MessagePlayerCompanionsDataUpdate.encode(this.companionsDataUpdateMessage, output);
+    return output;
+  }
+
+  @Benchmark
+  public MessagePlayerCompanionsDataUpdate decodePlayerCompanionsDataUpdate() {
+    return MessagePlayerCompanionsDataUpdate.decode(rewind(this.companionsDataUpdateBuffer));
+  }
+
+  @Benchmark
+  public FriendlyByteBuf encodeSkinChange() {
+    FriendlyByteBuf output = clearBuffer();
+    MessageSkinChange.encode(this.skinChangeMessage, output);
+    return output;
+  }
+
+  @Benchmark
+  public MessageSkinChange decodeSkinChange() {
+    return MessageSkinChange.decode(rewind(this.skinChangeBuffer));
+  }
+}
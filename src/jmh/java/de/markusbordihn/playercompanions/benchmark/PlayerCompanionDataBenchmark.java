@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.benchmark;
+
+import de.markusbordihn.playercompanions.data.PlayerCompanionData;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.nbt.CompoundTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerCompanionDataBenchmark {
+
+  private CompoundTag compoundTag;
+  private PlayerCompanionData playerCompanionData;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkEnvironment.init();
+    this.compoundTag = BenchmarkEnvironment.createPlayerCompanionTag();
+    this.playerCompanionData = new PlayerCompanionData(this.compoundTag);
+    this.playerCompanionData.getEntityData();
+  }
+
+  @Benchmark
+  public CompoundTag save() {
+    return this.playerCompanionData.save(new CompoundTag());
+  }
+
+  @Benchmark
+  public CompoundTag saveMetaData() {
+    return this.playerCompanionData.saveMetaData(new CompoundTag());
+  }
+
+  @Benchmark
+  public CompoundTag saveIfDirty() {
+    return this.playerCompanionData.saveIfDirty();
+  }
+
+  @Benchmark
+  public PlayerCompanionData load() {
+    return new PlayerCompanionData(this.compoundTag);
+  }
+
+  @Benchmark
+  public CompoundTag loadAndDecode() {
+    // Entity data, equipment and inventory are decoded on first access.
+    return new PlayerCompanionData(this.compoundTag).getEntityData();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.benchmark;
+
+import de.markusbordihn.playercompanions.data.PlayerCompanionDataHelper;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.NonNullList;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerCompanionDataHelperBenchmark {
+
+  private final NonNullList<ItemStack> armor = NonNullList.withSize(4, ItemStack.EMPTY);
+  private final NonNullList<ItemStack> hand = NonNullList.withSize(2, ItemStack.EMPTY);
+  private final NonNullList<ItemStack> inventory = NonNullList.withSize(16, ItemStack.EMPTY);
+  private NonNullList<ItemStack> armorItems;
+  private NonNullList<ItemStack> handItems;
+  private NonNullList<ItemStack> inventoryItems;
+  private CompoundTag armorTag;
+  private CompoundTag handTag;
+  private CompoundTag inventoryTag;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkEnvironment.init();
+    this.armorItems = BenchmarkEnvironment.createArmorItems();
+    this.handItems = BenchmarkEnvironment.createHandItems();
+    this.inventoryItems = BenchmarkEnvironment.createInventoryItems();
+    this.armorTag = PlayerCompanionDataHelper.saveArmorItems(new CompoundTag(), this.armorItems);
+    this.handTag = PlayerCompanionDataHelper.saveHandItems(new CompoundTag(), this.handItems);
+    this.inventoryTag =
+        PlayerCompanionDataHelper.saveInventoryItems(new CompoundTag(), this.inventoryItems);
+  }
+
+  @Benchmark
+  public CompoundTag saveArmorItems() {
+    return PlayerCompanionDataHelper.saveArmorItems(new CompoundTag(), this.armorItems);
+  }
+
+  @Benchmark
+  public NonNullList<ItemStack> loadArmorItems() {
+    PlayerCompanionDataHelper.loadArmorItems(this.armorTag, this.armor);
+    return this.armor;
+  }
+
+  @Benchmark
+  public CompoundTag saveHandItems() {
+    return PlayerCompanionDataHelper.saveHandItems(new CompoundTag(), this.handItems);
+  }
+
+  @Benchmark
+  public NonNullList<ItemStack> loadHandItems() {
+    PlayerCompanionDataHelper.loadHandItems(this.handTag, this.hand);
+    return this.hand;
+  }
+
+  @Benchmark
+  public CompoundTag saveInventoryItems() {
+    return PlayerCompanionDataHelper.saveInventoryItems(new CompoundTag(), this.inventoryItems);
+  }
+
+  @Benchmark
+  public NonNullList<ItemStack> loadInventoryItems() {
+    PlayerCompanionDataHelper.loadInventoryItems(this.inventoryTag, this.inventory);
+    return this.inventory;
+  }
+}
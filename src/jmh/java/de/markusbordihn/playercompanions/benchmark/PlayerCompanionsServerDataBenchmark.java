@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.benchmark;
+
+import de.markusbordihn.playercompanions.data.PlayerCompanionData;
+import de.markusbordihn.playercompanions.data.PlayerCompanionsServerData;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerCompanionsServerDataBenchmark {
+
+  // Each parameter runs in its own fork, so the static server data is not shared between them.
+  @Param({"100", "1000", "10000"})
+  public int companions;
+
+  private PlayerCompanionsServerData serverData;
+  private Set<PlayerCompanionData> playerCompanions;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkEnvironment.init();
+    this.playerCompanions =
+        BenchmarkEnvironment.createPlayerCompanions(this.companions, this.companions / 4);
+    ListTag companionListTag = new ListTag();
+    for (PlayerCompanionData playerCompanion : this.playerCompanions) {
+      companionListTag.add(playerCompanion.saveIfDirty());
+    }
+    CompoundTag compoundTag = new CompoundTag();
+    compoundTag.put(PlayerCompanionsServerData.COMPANIONS_TAG, companionListTag);
+    this.serverData = PlayerCompanionsServerData.load(compoundTag);
+    this.serverData.save(new CompoundTag());
+  }
+
+  @Benchmark
+  public CompoundTag saveUnchanged() {
+    // All companions are reusing their cached data.
+    return this.serverData.save(new CompoundTag());
+  }
+
+  @Benchmark
+  public CompoundTag saveChanged() {
+    // All companions needs to be re-serialized.
+    for (PlayerCompanionData playerCompanion : this.serverData.getCompanions().values()) {
+      playerCompanion.setDirty();
+    }
+    return this.serverData.save(new CompoundTag());
+  }
+}
@@ -22,24 +22,13 @@ package de.markusbordihn.playercompanions.client.textures;
 import com.mojang.blaze3d.platform.NativeImage;
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.utils.PlayersUtils;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.HashMap;
-import javax.imageio.ImageIO;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.DynamicTexture;
-import net.minecraft.client.renderer.texture.TextureManager;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
-import net.minecraftforge.fml.loading.FMLPaths;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -49,26 +38,20 @@ public class ModTextureManager {
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
 
   private static final String TEXTURE_PREFIX = Constants.MOD_ID + "_client_texture_";
-  private static final HashMap<String, ResourceLocation> textureCache = new HashMap<>();
-  private static Path textureCachePath = null;
+  private static final String TEXTURE_TYPE = "mod";
+  private static final TextureCache<String> textureCache = new TextureCache<>("mod");
 
   protected ModTextureManager() {}
 
-  private static ResourceLocation addTexture(String name, File file) {
+  private static ResourceLocation addTexture(String name, NativeImage nativeImage) {
     if (hasTexture(name)) {
-      log.warn(
-          "Texture with name {} already exists! Unable to add texture for file: {}", name, file);
+      log.warn("Texture with name {} already exists! Unable to add texture {}", name, nativeImage);
+      nativeImage.close();
       return getTexture(name);
     }
     Minecraft client = Minecraft.getInstance();
-    TextureManager textureManager = client.getTextureManager();
-
-    // Creative native image from file.
-    NativeImage nativeImage = getNativeImage(file);
-    if (nativeImage == null) {
-      log.error("Unable to create native image for file {}.", file);
-      return null;
-    }
+    net.minecraft.client.renderer.texture.TextureManager textureManager =
+        client.getTextureManager();
 
     // Creative dynamic texture from native image.
     DynamicTexture dynamicTexture = new DynamicTexture(nativeImage);
@@ -83,7 +66,7 @@ public class ModTextureManager {
         resourceLocation);
 
     // Store resource location by id into cache.
-    textureCache.put(textureId, resourceLocation);
+    textureCache.put(textureId, resourceLocation, nativeImage);
     return resourceLocation;
   }
 
@@ -97,56 +80,20 @@ public class ModTextureManager {
       return getTexture(remoteUrl);
     }
 
-    String fileName = getFileName(remoteUrl);
-    File file = new File(getTextureCacheDirectoryString(), fileName);
-    if (file.exists()) {
-      log.debug("Found downloaded file in cache, will re-used file {} for {}", file, remoteUrl);
-      return addTexture(remoteUrl, file);
-    }
-
-    // Download URL to memory
-    BufferedImage image;
-    try {
-      image = ImageIO.read(new URL(remoteUrl));
-    } catch (IllegalArgumentException | IOException exception) {
-      log.error("Unable to load texture from {} because of:", remoteUrl, exception);
-      return null;
-    }
-
-    // Verify the image data to make sure we got a valid image!
-    if (image == null) {
+    // Load texture from content cache or download and decode it.
+    NativeImage nativeImage =
+        TextureManager.loadTexture(new TextureModelKey(remoteUrl, TEXTURE_TYPE), remoteUrl);
+    if (nativeImage == null) {
       log.error("Unable to get any valid texture from {}!", remoteUrl);
       return null;
-    } else if (image.getWidth() < 32
-        || image.getHeight() < 32
-        || image.getWidth() % 32 != 0
-        || image.getHeight() % 32 != 0) {
-      log.error(
-          "Unable to get any valid texture from {}, got {}x{}!",
-          remoteUrl,
-          image.getWidth(),
-          image.getHeight());
-      return null;
     }
 
-    // Storing file to cache.
-    try {
-      ImageIO.write(image, "png", file);
-    } catch (IllegalArgumentException | IOException exception) {
-      log.error("Unable to store texture from {} to {} because of:", remoteUrl, file, exception);
-      return null;
-    }
-
-    // Adding file to texture manager.
-    return addTexture(remoteUrl, file);
+    // Adding texture to texture manager.
+    return addTexture(remoteUrl, nativeImage);
   }
 
   public static String getId(String name) {
-    return TEXTURE_PREFIX + name.hashCode();
-  }
-
-  public static String getFileName(String name) {
-    return String.format("%s.png", getId(name)).replace("-", "0");
+    return TEXTURE_PREFIX + UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
   }
 
   public static boolean hasTexture(String name) {
@@ -156,67 +103,4 @@ public class ModTextureManager {
   public static ResourceLocation getTexture(String name) {
     return textureCache.get(getId(name));
   }
-
-  public static String getTextureCacheDirectoryString() {
-    return getTextureCacheDirectory().toString();
-  }
-
-  public static Path getTextureCacheDirectory() {
-    if (textureCachePath == null) {
-      Path cacheDirectory =
-          Paths.get(FMLPaths.GAMEDIR.get().resolve(Constants.MOD_ID).toString(), "texture_cache");
-      if (!cacheDirectory.toFile().exists()) {
-        log.info("Creating texture cache directory at {}", cacheDirectory);
-        try {
-          Files.createDirectories(cacheDirectory);
-        } catch (Exception exception) {
-          log.error(
-              "Unable to create texture cache directory at {} because of:",
-              cacheDirectory,
-              exception);
-        }
-      }
-      textureCachePath = cacheDirectory;
-    }
-    return textureCachePath;
-  }
-
-  public static NativeImage getNativeImage(File file) {
-    NativeImage nativeImage;
-    try {
-      InputStream inputStream = new FileInputStream(file);
-      nativeImage = NativeImage.read(inputStream);
-      inputStream.close();
-    } catch (Exception exception) {
-      log.error("Unable to get native image for file {} because of:", file, exception);
-      return null;
-    }
-
-    if (nativeImage.getWidth() == 64 && nativeImage.getHeight() == 32) {
-      log.info("Processing legacy image {} from 64x32 to 64x64 ...", nativeImage);
-      nativeImage = getNativeImageFromLegacyImage(nativeImage);
-    }
-
-    return nativeImage;
-  }
-
-  public static NativeImage getNativeImageFromLegacyImage(NativeImage legacyNativeImage) {
-    NativeImage nativeImage = new NativeImage(64, 64, true);
-    nativeImage.copyFrom(legacyNativeImage);
-    legacyNativeImage.close();
-    nativeImage.fillRect(0, 32, 64, 32, 0);
-    nativeImage.copyRect(4, 16, 16, 32, 4, 4, true, false);
-    nativeImage.copyRect(8, 16, 16, 32, 4, 4, true, false);
-    nativeImage.copyRect(0, 20, 24, 32, 4, 12, true, false);
-    nativeImage.copyRect(4, 20, 16, 32, 4, 12, true, false);
-    nativeImage.copyRect(8, 20, 8, 32, 4, 12, true, false);
-    nativeImage.copyRect(12, 20, 16, 32, 4, 12, true, false);
-    nativeImage.copyRect(44, 16, -8, 32, 4, 4, true, false);
-    nativeImage.copyRect(48, 16, -8, 32, 4, 4, true, false);
-    nativeImage.copyRect(40, 20, 0, 32, 4, 12, true, false);
-    nativeImage.copyRect(44, 20, -8, 32, 4, 12, true, false);
-    nativeImage.copyRect(48, 20, -16, 32, 4, 12, true, false);
-    nativeImage.copyRect(52, 20, -8, 32, 4, 12, true, false);
-    return nativeImage;
-  }
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.client.textures;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.metrics.MetricCounter;
+import de.markusbordihn.playercompanions.metrics.MetricTimer;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import de.markusbordihn.playercompanions.skin.SkinType;
+import de.markusbordihn.playercompanions.utils.PlayersUtils;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Loads player textures in the background, to avoid blocking the render thread with network and
+ * disk access. Requests for the same texture are only processed once at the same time, failed
+ * requests are retried with an increasing delay. Finished textures are registered on the render
+ * thread.
+ */
+@OnlyIn(Dist.CLIENT)
+public class PlayerTextureLoader {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final String LOG_PREFIX = "[Player Texture Loader]";
+  private static final int MAX_THREADS = 2;
+  private static final int MAX_QUEUED_REQUESTS = 32;
+  private static final int MAX_RETRIES = 5;
+  private static final long RETRY_DELAY = 5000L;
+  private static final long MAX_RETRY_DELAY = 5L * 60L * 1000L;
+
+  private static final AtomicInteger threadCounter = new AtomicInteger();
+  private static final ThreadPoolExecutor executor =
+      new ThreadPoolExecutor(
+          MAX_THREADS,
+          MAX_THREADS,
+          30L,
+          TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(MAX_QUEUED_REQUESTS),
+          runnable -> {
+            Thread thread =
+                new Thread(
+                    runnable,
+                    Constants.MOD_ID + "-texture-loader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static final Set<TextureModelKey> pendingRequests = ConcurrentHashMap.newKeySet();
+  private static final Map<TextureModelKey, FailedRequest> failedRequests =
+      new ConcurrentHashMap<>();
+
+  // Metrics
+  private static final MetricCounter requestCounter =
+      MetricsRegistry.getCounter("texture.load.requests");
+  private static final MetricCounter failureCounter =
+      MetricsRegistry.getCounter("texture.load.failures");
+  private static final MetricTimer loadTimer = MetricsRegistry.getTimer("texture.load");
+
+  static {
+    executor.allowCoreThreadTimeOut(true);
+    MetricsRegistry.registerGauge(
+        "texture.load.pending", PlayerTextureLoader::getNumberOfPendingRequests);
+  }
+
+  protected PlayerTextureLoader() {}
+
+  public static boolean isPending(TextureModelKey textureModelKey) {
+    return pendingRequests.contains(textureModelKey);
+  }
+
+  public static int getNumberOfPendingRequests() {
+    return pendingRequests.size();
+  }
+
+  public static void load(
+      TextureModelKey textureModelKey, SkinType skinType, String skinURL) {
+    // Ignore request, if it is already in progress or if we need to wait for the next retry.
+    FailedRequest failedRequest = failedRequests.get(textureModelKey);
+    if ((failedRequest != null && !failedRequest.canRetry())
+        || !pendingRequests.add(textureModelKey)) {
+      return;
+    }
+
+    requestCounter.increment();
+    execute(textureModelKey, () -> loadTexture(textureModelKey, skinType, skinURL));
+  }
+
+  private static void execute(TextureModelKey textureModelKey, Runnable runnable) {
+    try {
+      executor.execute(runnable);
+    } catch (RejectedExecutionException exception) {
+      // Queue is full, the request will be repeated on one of the next frames.
+      pendingRequests.remove(textureModelKey);
+    }
+  }
+
+  private static void loadTexture(
+      TextureModelKey textureModelKey, SkinType skinType, String skinURL) {
+    long startTime = System.nanoTime();
+    NativeImage nativeImage = null;
+    try {
+      // Check the texture cache for matching data, before resolving and downloading the texture.
+      nativeImage = TextureManager.loadCachedTexture(textureModelKey);
+    } catch (Exception exception) {
+      log.error("{} Unable to load texture {} because of:", LOG_PREFIX, textureModelKey, exception);
+    }
+
+    if (nativeImage != null) {
+      registerTexture(textureModelKey, skinType, skinURL, nativeImage, startTime);
+    } else if (skinType == SkinType.PLAYER_SKIN) {
+      // Resolve the user texture without blocking a loader thread and download it afterwards.
+      PlayersUtils.getUserTextureAsync(textureModelKey.getUUID())
+          .whenComplete(
+              (textureSkinURL, throwable) ->
+                  execute(
+                      textureModelKey,
+                      () ->
+                          downloadTexture(
+                              textureModelKey,
+                              skinType,
+                              throwable == null ? textureSkinURL : null,
+                              startTime)));
+    } else {
+      downloadTexture(textureModelKey, skinType, getTextureSkinURL(skinType, skinURL), startTime);
+    }
+  }
+
+  private static void downloadTexture(
+      TextureModelKey textureModelKey, SkinType skinType, String textureSkinURL, long startTime) {
+    NativeImage nativeImage = null;
+    try {
+      if (textureSkinURL != null && !textureSkinURL.isEmpty()) {
+        nativeImage = TextureManager.loadTexture(textureModelKey, textureSkinURL);
+      }
+    } catch (Exception exception) {
+      log.error("{} Unable to load texture {} because of:", LOG_PREFIX, textureModelKey, exception);
+    }
+    registerTexture(textureModelKey, skinType, textureSkinURL, nativeImage, startTime);
+  }
+
+  private static void registerTexture(
+      TextureModelKey textureModelKey,
+      SkinType skinType,
+      String textureSkinURL,
+      NativeImage nativeImage,
+      long startTime) {
+    loadTimer.record(System.nanoTime() - startTime);
+
+    // Register texture on the render thread.
+    Minecraft.getInstance()
+        .execute(
+            () -> {
+              pendingRequests.remove(textureModelKey);
+              if (nativeImage == null) {
+                failureCounter.increment();
+                FailedRequest failedRequest =
+                    failedRequests.computeIfAbsent(textureModelKey, key -> new FailedRequest());
+                failedRequest.failed();
+                log.warn(
+                    "{} Failed to load texture {} ({} attempts), next retry in {} ms.",
+                    LOG_PREFIX,
+                    textureModelKey.getUUID(),
+                    failedRequest.attempts,
+                    failedRequest.nextRetryTime - System.currentTimeMillis());
+                return;
+              }
+              failedRequests.remove(textureModelKey);
+              PlayerTextureManager.registerTexture(
+                  textureModelKey, skinType, textureSkinURL, nativeImage);
+            });
+  }
+
+  private static String getTextureSkinURL(SkinType skinType, String skinURL) {
+    switch (skinType) {
+      case SECURE_REMOTE_URL:
+      case INSECURE_REMOTE_URL:
+        return PlayersUtils.isValidUrl(skinURL) ? skinURL : null;
+      default:
+        return null;
+    }
+  }
+
+  private static class FailedRequest {
+    private int attempts = 0;
+    private long nextRetryTime = 0;
+
+    private boolean canRetry() {
+      return attempts < MAX_RETRIES && System.currentTimeMillis() >= nextRetryTime;
+    }
+
+    private void failed() {
+      attempts++;
+      nextRetryTime =
+          System.currentTimeMillis()
+              + Math.min(RETRY_DELAY * (1L << Math.min(attempts - 1, 16)), MAX_RETRY_DELAY);
+    }
+  }
+}
@@ -19,14 +19,11 @@
 
 package de.markusbordihn.playercompanions.client.textures;
 
+import com.mojang.blaze3d.platform.NativeImage;
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
 import de.markusbordihn.playercompanions.skin.SkinModel;
 import de.markusbordihn.playercompanions.skin.SkinType;
-import de.markusbordihn.playercompanions.utils.PlayersUtils;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -41,24 +38,22 @@ public class PlayerTextureManager {
 
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
 
-  private static final String LOG_PREFIX = "[Player Texture Manager]";
-  private static final HashMap<TextureModelKey, ResourceLocation> playerTextureCache =
-      new HashMap<>();
+  private static final TextureCache<TextureModelKey> playerTextureCache =
+      new TextureCache<>("player");
   private static final HashMap<TextureModelKey, SkinType> playerTextureSkinTypeCache =
       new HashMap<>();
   private static final HashMap<TextureModelKey, String> playerTextureSkinURLCache = new HashMap<>();
-  private static final HashSet<UUID> playerTextureReloadProtection = new HashSet<>();
-  private static Path textureCachePath = null;
 
   protected PlayerTextureManager() {}
 
   public static Map<TextureModelKey, ResourceLocation> getPlayerTextureCache() {
-    return playerTextureCache;
+    return playerTextureCache.getTextures();
   }
 
   public static Set<UUID> getPlayerTextureCacheKeys(SkinModel skinModel) {
     HashSet<UUID> hashSet = new HashSet<>();
-    for (TextureModelKey textureModelKey : playerTextureCache.keySet()) {
+    // Released textures are reloaded on demand, so the known skin data are used here.
+    for (TextureModelKey textureModelKey : playerTextureSkinTypeCache.keySet()) {
       if (skinModel.equals(textureModelKey.getSkinModel())
           && hasPlayerTextureSkinData(textureModelKey)) {
         hashSet.add(textureModelKey.getUUID());
@@ -111,90 +106,22 @@ public class PlayerTextureManager {
 
   private static ResourceLocation createTexture(
       TextureModelKey textureModelKey, SkinType skinType, String skinURL) {
-
-    // Check the local texture cache for any matching files.
-    SkinModel skinModel = textureModelKey.getSkinModel();
-    String targetDirectory = getTextureCacheDirectory(skinModel).toString();
-    ResourceLocation localTextureCache =
-        TextureManager.getCachedTexture(textureModelKey, targetDirectory);
-    if (localTextureCache != null) {
-      playerTextureCache.put(textureModelKey, localTextureCache);
-      playerTextureSkinTypeCache.put(textureModelKey, skinType);
-      playerTextureSkinURLCache.put(textureModelKey, skinURL);
-      return localTextureCache;
-    }
-
-    // Reload protection to avoid multiple http requests in the same session.
-    UUID skinUUID = textureModelKey.getUUID();
-    if (playerTextureReloadProtection.contains(skinUUID)) {
-      return null;
-    }
-    playerTextureReloadProtection.add(skinUUID);
-
-    // Get skin texture location depending on skin type.
-    String textureSkinURL = null;
-    switch (skinType) {
-      case PLAYER_SKIN:
-        textureSkinURL = PlayersUtils.getUserTexture(skinUUID);
-        break;
-      case SECURE_REMOTE_URL:
-      case INSECURE_REMOTE_URL:
-        if (PlayersUtils.isValidUrl(skinURL)) {
-          textureSkinURL = skinURL;
-        }
-        break;
-      default:
-    }
-
-    // Check if we got any valid texture skin location.
-    if (textureSkinURL == null || textureSkinURL.isEmpty()) {
+    // Load texture in the background, the default texture is used until it is ready.
+    if (PlayerTextureLoader.isPending(textureModelKey)) {
       return null;
     }
-
-    // Add Texture to texture manager.
-    ResourceLocation resourceLocation =
-        TextureManager.addRemoteTexture(textureModelKey, textureSkinURL, targetDirectory);
-    playerTextureCache.put(textureModelKey, resourceLocation);
-    playerTextureSkinTypeCache.put(textureModelKey, skinType);
-    playerTextureSkinURLCache.put(textureModelKey, textureSkinURL);
-    return resourceLocation;
+    PlayerTextureLoader.load(textureModelKey, skinType, skinURL);
+    return null;
   }
 
-  private static Path getTextureCacheDirectory(SkinModel skinModel) {
-    // Get or create main cache directory.
-    if (textureCachePath == null) {
-      Path cacheDirectory =
-          Paths.get(TextureManager.getTextureCacheDirectory().toString(), "player");
-      if (!cacheDirectory.toFile().exists()) {
-        log.info("{} Creating player texture cache directory at {}", LOG_PREFIX, cacheDirectory);
-        try {
-          Files.createDirectories(cacheDirectory);
-        } catch (Exception exception) {
-          log.error(
-              "{} Failed to create player texture cache directory at {}",
-              LOG_PREFIX,
-              cacheDirectory,
-              exception);
-        }
-      }
-      textureCachePath = cacheDirectory;
-    }
-
-    // Get or create model cache directory.
-    Path cacheDirectory = Paths.get(textureCachePath.toString(), skinModel.name());
-    if (!cacheDirectory.toFile().exists()) {
-      log.info(
-          "{} Creating player texture model cache directory at {}", LOG_PREFIX, cacheDirectory);
-      try {
-        Files.createDirectories(cacheDirectory);
-      } catch (Exception exception) {
-        log.error(
-            "{} Failed to create player texture model cache directory at {}",
-            LOG_PREFIX,
-            cacheDirectory,
-            exception);
-      }
+  protected static void registerTexture(
+      TextureModelKey textureModelKey, SkinType skinType, String skinURL, NativeImage nativeImage) {
+    ResourceLocation resourceLocation =
+        TextureManager.registerTexture(textureModelKey, nativeImage);
+    if (resourceLocation != null) {
+      playerTextureCache.put(textureModelKey, resourceLocation, nativeImage);
+      playerTextureSkinTypeCache.put(textureModelKey, skinType);
+      playerTextureSkinURLCache.put(textureModelKey, skinURL);
     }
-    return cacheDirectory;
   }
 }
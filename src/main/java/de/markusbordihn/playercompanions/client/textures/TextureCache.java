@@ -0,0 +1,197 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.client.textures;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.config.CommonConfig;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import net.minecraft.client.Minecraft;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache for registered dynamic textures with a shared memory budget for all texture caches. If
+ * the budget is exceeded, the least recently used textures are released from the texture manager
+ * and need to be registered again on their next use. The cache should only be used from the
+ * render thread.
+ */
+@OnlyIn(Dist.CLIENT)
+public class TextureCache<K> {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  private static final CommonConfig.Config COMMON = CommonConfig.COMMON;
+
+  private static final String LOG_PREFIX = "[Texture Cache]";
+
+  // Textures which were used recently are never released to avoid releasing visible textures.
+  private static final long MIN_TEXTURE_AGE = 5000L;
+
+  private static final List<TextureCache<?>> textureCaches = new CopyOnWriteArrayList<>();
+  private static long totalMemoryUsage = 0;
+
+  static {
+    MetricsRegistry.registerGauge("texture.cache.memory", TextureCache::getTotalMemoryUsage);
+  }
+
+  private final String name;
+  private final LinkedHashMap<K, CachedTexture> cache = new LinkedHashMap<>(16, 0.75F, true);
+  private long memoryUsage = 0;
+
+  public TextureCache(String name) {
+    this.name = name;
+    textureCaches.add(this);
+  }
+
+  public static long getTotalMemoryUsage() {
+    return totalMemoryUsage;
+  }
+
+  private static void releaseTextures() {
+    long maxMemoryUsage = COMMON.textureCacheMaxMemory.get() * 1024L * 1024L;
+    if (maxMemoryUsage <= 0) {
+      return;
+    }
+    long minAccessTime = System.currentTimeMillis() - MIN_TEXTURE_AGE;
+    while (totalMemoryUsage > maxMemoryUsage) {
+      // Find least recently used texture over all caches, which are ordered by access.
+      TextureCache<?> oldestTextureCache = null;
+      long oldestAccessTime = minAccessTime;
+      for (TextureCache<?> textureCache : textureCaches) {
+        long accessTime = textureCache.getOldestAccessTime();
+        if (accessTime < oldestAccessTime) {
+          oldestTextureCache = textureCache;
+          oldestAccessTime = accessTime;
+        }
+      }
+      if (oldestTextureCache == null) {
+        return;
+      }
+      oldestTextureCache.releaseOldest();
+    }
+  }
+
+  private static long getMemorySize(NativeImage nativeImage) {
+    if (nativeImage == null) {
+      return 0;
+    }
+    return (long) nativeImage.getWidth()
+        * nativeImage.getHeight()
+        * nativeImage.format().components();
+  }
+
+  public ResourceLocation get(K key) {
+    CachedTexture cachedTexture = this.cache.get(key);
+    if (cachedTexture == null) {
+      return null;
+    }
+    cachedTexture.accessTime = System.currentTimeMillis();
+    return cachedTexture.resourceLocation;
+  }
+
+  public boolean containsKey(K key) {
+    return this.cache.containsKey(key);
+  }
+
+  public void put(K key, ResourceLocation resourceLocation, NativeImage nativeImage) {
+    remove(key);
+    CachedTexture cachedTexture =
+        new CachedTexture(resourceLocation, getMemorySize(nativeImage), System.currentTimeMillis());
+    this.cache.put(key, cachedTexture);
+    this.memoryUsage += cachedTexture.memorySize;
+    totalMemoryUsage += cachedTexture.memorySize;
+    releaseTextures();
+  }
+
+  public void remove(K key) {
+    CachedTexture cachedTexture = this.cache.remove(key);
+    if (cachedTexture != null) {
+      this.memoryUsage -= cachedTexture.memorySize;
+      totalMemoryUsage -= cachedTexture.memorySize;
+    }
+  }
+
+  public Set<K> keySet() {
+    return new HashSet<>(this.cache.keySet());
+  }
+
+  public Map<K, ResourceLocation> getTextures() {
+    Map<K, ResourceLocation> textures = new HashMap<>();
+    for (Map.Entry<K, CachedTexture> entry : this.cache.entrySet()) {
+      textures.put(entry.getKey(), entry.getValue().resourceLocation);
+    }
+    return textures;
+  }
+
+  public int size() {
+    return this.cache.size();
+  }
+
+  public long getMemoryUsage() {
+    return this.memoryUsage;
+  }
+
+  private long getOldestAccessTime() {
+    Iterator<CachedTexture> iterator = this.cache.values().iterator();
+    return iterator.hasNext() ? iterator.next().accessTime : Long.MAX_VALUE;
+  }
+
+  private void releaseOldest() {
+    Iterator<Map.Entry<K, CachedTexture>> iterator = this.cache.entrySet().iterator();
+    if (!iterator.hasNext()) {
+      return;
+    }
+    Map.Entry<K, CachedTexture> entry = iterator.next();
+    CachedTexture cachedTexture = entry.getValue();
+    iterator.remove();
+    this.memoryUsage -= cachedTexture.memorySize;
+    totalMemoryUsage -= cachedTexture.memorySize;
+    Minecraft.getInstance().getTextureManager().release(cachedTexture.resourceLocation);
+    log.debug(
+        "{} Released {} texture {} with {} bytes.",
+        LOG_PREFIX,
+        this.name,
+        cachedTexture.resourceLocation,
+        cachedTexture.memorySize);
+  }
+
+  private static class CachedTexture {
+    private final ResourceLocation resourceLocation;
+    private final long memorySize;
+    private long accessTime;
+
+    CachedTexture(ResourceLocation resourceLocation, long memorySize, long accessTime) {
+      this.resourceLocation = resourceLocation;
+      this.memorySize = memorySize;
+      this.accessTime = accessTime;
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.client.textures;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import de.markusbordihn.playercompanions.Constants;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Disk cache for the raw texture data, which are stored under their SHA-256 content hash. An index
+ * maps the cache keys (e.g. skin UUID or texture URL) and remote URLs to the content hash and the
+ * HTTP validators of the last download. The cache could be used from any thread.
+ */
+@OnlyIn(Dist.CLIENT)
+public class TextureContentCache {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+
+  private static final String LOG_PREFIX = "[Texture Content Cache]";
+  private static final String CONTENT_DIRECTORY_NAME = "content";
+  private static final String CONTENT_FILE_EXTENSION = ".png";
+  private static final String INDEX_FILE_NAME = "index.json";
+  private static final String TEMP_FILE_EXTENSION = ".tmp";
+  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+  private static Path contentCachePath = null;
+  private static ContentIndex contentIndex = null;
+
+  protected TextureContentCache() {}
+
+  public static synchronized byte[] read(String cacheKey) {
+    String hash = getIndex().keys.get(cacheKey);
+    return hash != null ? readContent(hash) : null;
+  }
+
+  public static synchronized byte[] readURL(String remoteUrl) {
+    RemoteContent remoteContent = getIndex().urls.get(remoteUrl);
+    return remoteContent != null ? readContent(remoteContent.hash) : null;
+  }
+
+  public static synchronized String getETag(String remoteUrl) {
+    RemoteContent remoteContent = getRemoteContent(remoteUrl);
+    return remoteContent != null ? remoteContent.eTag : null;
+  }
+
+  public static synchronized String getLastModified(String remoteUrl) {
+    RemoteContent remoteContent = getRemoteContent(remoteUrl);
+    return remoteContent != null ? remoteContent.lastModified : null;
+  }
+
+  public static synchronized String store(
+      String cacheKey, String remoteUrl, byte[] data, String eTag, String lastModified) {
+    String hash = getHash(data);
+    Path contentDirectory = getContentCacheDirectory();
+    if (hash == null || contentDirectory == null) {
+      return null;
+    }
+
+    // Content files are immutable, so we only need to write new content.
+    File file = contentDirectory.resolve(hash + CONTENT_FILE_EXTENSION).toFile();
+    if (!file.exists()) {
+      File tempFile = contentDirectory.resolve(hash + TEMP_FILE_EXTENSION).toFile();
+      try {
+        Files.write(tempFile.toPath(), data);
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException exception) {
+        log.error("{} Unable to store texture content {}:", LOG_PREFIX, file, exception);
+        return null;
+      }
+    }
+
+    // Update index for the cache key and the remote URL.
+    ContentIndex index = getIndex();
+    if (cacheKey != null) {
+      index.keys.put(cacheKey, hash);
+    }
+    if (remoteUrl != null) {
+      index.urls.put(remoteUrl, new RemoteContent(hash, eTag, lastModified));
+    }
+    saveIndex();
+    return hash;
+  }
+
+  public static synchronized void link(String cacheKey, String remoteUrl) {
+    RemoteContent remoteContent = getIndex().urls.get(remoteUrl);
+    if (cacheKey != null && remoteContent != null) {
+      getIndex().keys.put(cacheKey, remoteContent.hash);
+      saveIndex();
+    }
+  }
+
+  /** Removes the cache key from the index, e.g. if the cached content could not be decoded. */
+  public static synchronized void remove(String cacheKey) {
+    if (cacheKey != null && getIndex().keys.remove(cacheKey) != null) {
+      saveIndex();
+    }
+  }
+
+  /** Removes the remote URL and its validators from the index, to force a new download. */
+  public static synchronized void removeURL(String remoteUrl) {
+    if (remoteUrl != null && getIndex().urls.remove(remoteUrl) != null) {
+      saveIndex();
+    }
+  }
+
+  public static String getHash(byte[] data) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    } catch (NoSuchAlgorithmException exception) {
+      log.error("{} Unable to create content hash:", LOG_PREFIX, exception);
+      return null;
+    }
+  }
+
+  private static RemoteContent getRemoteContent(String remoteUrl) {
+    // Validators are only useful, if the content is still available.
+    RemoteContent remoteContent = getIndex().urls.get(remoteUrl);
+    return remoteContent != null && hasContent(remoteContent.hash) ? remoteContent : null;
+  }
+
+  private static boolean hasContent(String hash) {
+    Path contentDirectory = getContentCacheDirectory();
+    return contentDirectory != null
+        && contentDirectory.resolve(hash + CONTENT_FILE_EXTENSION).toFile().exists();
+  }
+
+  private static byte[] readContent(String hash) {
+    Path contentDirectory = getContentCacheDirectory();
+    if (contentDirectory == null) {
+      return null;
+    }
+    Path file = contentDirectory.resolve(hash + CONTENT_FILE_EXTENSION);
+    if (!file.toFile().exists()) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(file);
+    } catch (IOException exception) {
+      log.error("{} Unable to read texture content {}:", LOG_PREFIX, file, exception);
+      return null;
+    }
+  }
+
+  private static ContentIndex getIndex() {
+    if (contentIndex == null) {
+      contentIndex = loadIndex();
+    }
+    return contentIndex;
+  }
+
+  private static ContentIndex loadIndex() {
+    Path contentDirectory = getContentCacheDirectory();
+    if (contentDirectory != null) {
+      Path indexFile = contentDirectory.resolve(INDEX_FILE_NAME);
+      if (indexFile.toFile().exists()) {
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+          ContentIndex index = GSON.fromJson(reader, ContentIndex.class);
+          if (index != null && index.keys != null && index.urls != null) {
+            return index;
+          }
+        } catch (IOException | JsonParseException exception) {
+          log.error(
+              "{} Unable to load texture index {}, will create a new one:",
+              LOG_PREFIX,
+              indexFile,
+              exception);
+        }
+      }
+    }
+    return new ContentIndex();
+  }
+
+  private static void saveIndex() {
+    Path contentDirectory = getContentCacheDirectory();
+    if (contentDirectory == null) {
+      return;
+    }
+    Path indexFile = contentDirectory.resolve(INDEX_FILE_NAME);
+    Path tempFile = contentDirectory.resolve(INDEX_FILE_NAME + TEMP_FILE_EXTENSION);
+    try {
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        GSON.toJson(getIndex(), writer);
+      }
+      Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException exception) {
+      log.error("{} Unable to save texture index {}:", LOG_PREFIX, indexFile, exception);
+    }
+  }
+
+  private static Path getContentCacheDirectory() {
+    if (contentCachePath == null) {
+      Path textureCacheDirectory = TextureManager.getTextureCacheDirectory();
+      if (textureCacheDirectory == null) {
+        return null;
+      }
+      Path cacheDirectory = Paths.get(textureCacheDirectory.toString(), CONTENT_DIRECTORY_NAME);
+      if (!cacheDirectory.toFile().exists()) {
+        log.info("{} Creating texture content cache directory at {}", LOG_PREFIX, cacheDirectory);
+        try {
+          Files.createDirectories(cacheDirectory);
+        } catch (IOException exception) {
+          log.error(
+              "{} Unable to create texture content cache directory at {} because of:",
+              LOG_PREFIX,
+              cacheDirectory,
+              exception);
+          return null;
+        }
+      }
+      contentCachePath = cacheDirectory;
+    }
+    return contentCachePath;
+  }
+
+  private static class ContentIndex {
+    private Map<String, String> keys = new HashMap<>();
+    private Map<String, RemoteContent> urls = new HashMap<>();
+  }
+
+  private static class RemoteContent {
+    private final String hash;
+    private final String eTag;
+    private final String lastModified;
+
+    RemoteContent(String hash, String eTag, String lastModified) {
+      this.hash = hash;
+      this.eTag = eTag;
+      this.lastModified = lastModified;
+    }
+  }
+}
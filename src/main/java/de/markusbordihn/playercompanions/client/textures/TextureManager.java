@@ -23,18 +23,14 @@ import com.mojang.blaze3d.platform.NativeImage;
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.skin.SkinModel;
 import de.markusbordihn.playercompanions.utils.PlayersUtils;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
-import javax.imageio.ImageIO;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.DynamicTexture;
 import net.minecraft.resources.ResourceLocation;
@@ -43,6 +39,7 @@ import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.fml.loading.FMLPaths;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.lwjgl.system.MemoryUtil;
 
 @OnlyIn(Dist.CLIENT)
 public class TextureManager {
@@ -52,27 +49,27 @@ public class TextureManager {
   private static final String TEXTURE_PREFIX = Constants.MOD_ID + "_client_texture_";
   private static final String LOG_PREFIX = "[Texture Manager]";
 
+  // Limits for remote textures, to avoid wasting memory for invalid or oversized textures.
+  private static final int MAX_REDIRECTS = 3;
+  private static final int MAX_TEXTURE_SIZE = 4096;
+  private static final int MAX_TEXTURE_BYTES = 8 * 1024 * 1024;
+  private static final int CONNECT_TIMEOUT = 10000;
+  private static final int READ_TIMEOUT = 20000;
+  private static final byte[] PNG_SIGNATURE = {
+    (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A
+  };
+
   private static Path textureCachePath = null;
 
   protected TextureManager() {}
 
-  private static ResourceLocation registerTexture(TextureModelKey textureModelKey, File file) {
+  public static ResourceLocation registerTexture(
+      TextureModelKey textureModelKey, NativeImage nativeImage) {
     // Using client Texture Manager
     Minecraft client = Minecraft.getInstance();
     net.minecraft.client.renderer.texture.TextureManager textureManager =
         client.getTextureManager();
 
-    // Creative native image from file.
-    NativeImage nativeImage =
-        textureModelKey.getSkinModel() == SkinModel.HUMANOID
-                || textureModelKey.getSkinModel() == SkinModel.HUMANOID_SLIM
-            ? getNativePlayerImage(file)
-            : getNativeImage(file);
-    if (nativeImage == null) {
-      log.error("{} Unable to create native image for file {}.", LOG_PREFIX, file);
-      return null;
-    }
-
     // Creative dynamic texture from native image.
     DynamicTexture dynamicTexture = new DynamicTexture(nativeImage);
 
@@ -90,89 +87,172 @@ public class TextureManager {
   }
 
   public static ResourceLocation addRemoteTexture(
-      TextureModelKey textureModelKey, String remoteUrl, String targetDirectory) {
-    if (!PlayersUtils.isValidUrl(remoteUrl)) {
-      log.error("{} Texture URL {} is invalid!", LOG_PREFIX, remoteUrl);
+      TextureModelKey textureModelKey, String remoteUrl) {
+    NativeImage nativeImage = loadTexture(textureModelKey, remoteUrl);
+    return nativeImage != null ? registerTexture(textureModelKey, nativeImage) : null;
+  }
+
+  public static ResourceLocation getCachedTexture(TextureModelKey textureModelKey) {
+    NativeImage nativeImage = loadCachedTexture(textureModelKey);
+    return nativeImage != null ? registerTexture(textureModelKey, nativeImage) : null;
+  }
+
+  public static NativeImage loadCachedTexture(TextureModelKey textureModelKey) {
+    String cacheKey = getCacheKey(textureModelKey);
+    byte[] data = TextureContentCache.read(cacheKey);
+    if (data == null) {
       return null;
     }
+    log.debug("{} Found cached texture data for {}", LOG_PREFIX, textureModelKey);
+    NativeImage nativeImage = getNativeImage(data, isLegacySupported(textureModelKey));
+    if (nativeImage == null) {
+      // Forget the broken content, so that the texture is downloaded again on the next try.
+      log.warn("{} Removing undecodable cached texture data for {}", LOG_PREFIX, textureModelKey);
+      TextureContentCache.remove(cacheKey);
+    }
+    return nativeImage;
+  }
 
-    // Check for cached textured.
-    ResourceLocation cachedTexture = getCachedTexture(textureModelKey, targetDirectory);
-    if (cachedTexture != null) {
-      log.debug(
-          "{} Found downloaded file in cache, will re-used {} for {}",
-          LOG_PREFIX,
-          cachedTexture,
-          remoteUrl);
-      return cachedTexture;
+  /**
+   * Loads the texture from the content cache or from the remote URL and decodes it once into a
+   * native image. This method is blocking and does not touch the texture manager, so it could be
+   * used from any thread.
+   */
+  public static NativeImage loadTexture(TextureModelKey textureModelKey, String remoteUrl) {
+    NativeImage nativeImage = loadCachedTexture(textureModelKey);
+    if (nativeImage != null) {
+      return nativeImage;
+    }
+    return downloadTexture(
+        getCacheKey(textureModelKey), remoteUrl, isLegacySupported(textureModelKey));
+  }
+
+  /**
+   * Downloads and decodes the texture. The raw data are only stored in the content cache, if they
+   * could be decoded, to avoid reusing broken data on every retry.
+   */
+  private static NativeImage downloadTexture(
+      String cacheKey, String remoteUrl, boolean legacySupport) {
+    if (!PlayersUtils.isValidUrl(remoteUrl)) {
+      log.error("{} Texture URL {} is invalid!", LOG_PREFIX, remoteUrl);
+      return null;
     }
 
-    // Verify URL and follow redirect for 301 and 302, if needed.
     try {
-      URL remoteImageURL = new URL(remoteUrl);
-      HttpURLConnection connection = (HttpURLConnection) remoteImageURL.openConnection();
-      if (connection.getResponseCode() == HttpURLConnection.HTTP_MOVED_PERM
-          || connection.getResponseCode() == HttpURLConnection.HTTP_MOVED_TEMP) {
-        String redirectUrl = connection.getHeaderField("Location");
-        log.debug("{} Following redirect from {} to {}", LOG_PREFIX, remoteUrl, redirectUrl);
-        remoteUrl = redirectUrl;
-      } else if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-        log.error(
-            "{} Unable to load texture from URL {} because of: {}",
-            LOG_PREFIX,
-            remoteUrl,
-            connection.getResponseMessage());
+      // Follow redirects for 301, 302, 303, 307 and 308, if needed.
+      String url = remoteUrl;
+      HttpURLConnection connection = null;
+      for (int redirect = 0; redirect <= MAX_REDIRECTS; redirect++) {
+        connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+
+        // Use validators of the last download, to avoid downloading unchanged textures.
+        String eTag = TextureContentCache.getETag(url);
+        String lastModified = TextureContentCache.getLastModified(url);
+        if (eTag != null) {
+          connection.setRequestProperty("If-None-Match", eTag);
+        }
+        if (lastModified != null) {
+          connection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+
+        int responseCode = connection.getResponseCode();
+        if (responseCode == HttpURLConnection.HTTP_MOVED_PERM
+            || responseCode == HttpURLConnection.HTTP_MOVED_TEMP
+            || responseCode == HttpURLConnection.HTTP_SEE_OTHER
+            || responseCode == 307
+            || responseCode == 308) {
+          String redirectUrl = connection.getHeaderField("Location");
+          connection.disconnect();
+          if (redirect == MAX_REDIRECTS || redirectUrl == null) {
+            log.error("{} Unable to follow redirect for texture URL {}!", LOG_PREFIX, remoteUrl);
+            return null;
+          }
+          log.debug("{} Following redirect from {} to {}", LOG_PREFIX, url, redirectUrl);
+          url = new URL(new URL(url), redirectUrl).toString();
+          continue;
+        }
+        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+          log.debug("{} Texture {} is not modified, will use cached data.", LOG_PREFIX, url);
+          connection.disconnect();
+          byte[] cachedData = TextureContentCache.readURL(url);
+          NativeImage nativeImage =
+              cachedData != null ? getNativeImage(cachedData, legacySupport) : null;
+          if (nativeImage != null) {
+            TextureContentCache.link(cacheKey, url);
+          } else {
+            // Drop the validators, so that the next try downloads the full texture again.
+            TextureContentCache.removeURL(url);
+          }
+          return nativeImage;
+        }
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+          log.error(
+              "{} Unable to load texture from URL {} because of: {}",
+              LOG_PREFIX,
+              url,
+              connection.getResponseMessage());
+          connection.disconnect();
+          return null;
+        }
+        break;
+      }
+      if (connection == null) {
+        return null;
+      }
+
+      // Read raw data and decode them, before storing them into the content cache.
+      String eTag = connection.getHeaderField("ETag");
+      String lastModified = connection.getHeaderField("Last-Modified");
+      byte[] data;
+      try (InputStream inputStream = connection.getInputStream()) {
+        data = inputStream.readNBytes(MAX_TEXTURE_BYTES + 1);
+      } finally {
+        connection.disconnect();
+      }
+      if (!isValidTextureData(data, url)) {
         return null;
       }
+      NativeImage nativeImage = getNativeImage(data, legacySupport);
+      if (nativeImage != null) {
+        TextureContentCache.store(cacheKey, url, data, eTag, lastModified);
+      }
+      return nativeImage;
     } catch (IllegalArgumentException | IOException exception) {
       log.error(
           "{} Unable to load texture from URL {} because of:", LOG_PREFIX, remoteUrl, exception);
       return null;
     }
+  }
 
-    // Download URL to memory
-    BufferedImage image;
-    try {
-      image = ImageIO.read(new URL(remoteUrl));
-    } catch (IllegalArgumentException | IOException exception) {
-      log.error("{} Unable to load texture from {} because of:", LOG_PREFIX, remoteUrl, exception);
-      return null;
+  private static boolean isValidTextureData(byte[] data, String url) {
+    if (data == null || data.length < 24 || data.length > MAX_TEXTURE_BYTES) {
+      log.error("{} Unable to get any valid texture data from {}!", LOG_PREFIX, url);
+      return false;
     }
-
-    // Verify the image data to make sure we got a valid image!
-    if (image == null) {
-      log.error("{} Unable to get any valid texture from {}!", LOG_PREFIX, remoteUrl);
-      return null;
-    } else if (image.getWidth() < 32
-        || image.getHeight() < 32
-        || image.getWidth() % 32 != 0
-        || image.getHeight() % 32 != 0) {
-      log.error(
-          "{} Unable to get any valid texture from {}, got {}x{}!",
-          LOG_PREFIX,
-          remoteUrl,
-          image.getWidth(),
-          image.getHeight());
-      return null;
+    for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+      if (data[i] != PNG_SIGNATURE[i]) {
+        log.error("{} Texture from {} is not a valid PNG image!", LOG_PREFIX, url);
+        return false;
+      }
     }
 
-    // Storing file to cache.
-    UUID uuid = textureModelKey.getUUID();
-    File file = new File(targetDirectory, getFileName(uuid));
-    try {
-      ImageIO.write(image, "png", file);
-    } catch (IllegalArgumentException | IOException exception) {
+    // Width and height are stored in the IHDR chunk directly after the PNG signature.
+    int width = ByteBuffer.wrap(data, 16, 4).getInt();
+    int height = ByteBuffer.wrap(data, 20, 4).getInt();
+    if (width < 32
+        || height < 32
+        || width > MAX_TEXTURE_SIZE
+        || height > MAX_TEXTURE_SIZE
+        || width % 32 != 0
+        || height % 32 != 0) {
       log.error(
-          "{} Unable to store texture from {} to {} because of:",
-          LOG_PREFIX,
-          remoteUrl,
-          file,
-          exception);
-      return null;
+          "{} Unable to get any valid texture from {}, got {}x{}!", LOG_PREFIX, url, width, height);
+      return false;
     }
-
-    // Adding file to texture manager.
-    return registerTexture(textureModelKey, file);
+    return true;
   }
 
   public static String getResourceName(TextureModelKey textureModelKey) {
@@ -183,27 +263,8 @@ public class TextureManager {
     return (TEXTURE_PREFIX + type + "_" + name.replaceAll("[^a-z0-9_.-]", "")).toLowerCase();
   }
 
-  public static String getFileName(UUID uuid) {
-    return getFileName(uuid.toString());
-  }
-
-  public static String getFileName(String name) {
-    return name.replaceAll("[^a-z0-9_.-]", "") + ".png";
-  }
-
-  public static ResourceLocation getCachedTexture(
-      TextureModelKey textureModelKey, String targetDirectory) {
-    String fileName = String.format("%s.png", textureModelKey.getUUID());
-    File file = new File(targetDirectory, fileName);
-    if (file.exists()) {
-      log.debug(
-          "{} Found downloaded file in cache, will re-used file {} for {}",
-          LOG_PREFIX,
-          file,
-          textureModelKey);
-      return registerTexture(textureModelKey, file);
-    }
-    return null;
+  public static String getCacheKey(TextureModelKey textureModelKey) {
+    return textureModelKey.getUUID().toString();
   }
 
   public static Path getTextureCacheDirectory() {
@@ -228,24 +289,26 @@ public class TextureManager {
     return textureCachePath;
   }
 
-  public static NativeImage getNativeImage(File file) {
-    return getNativeImage(file, false);
-  }
-
-  public static NativeImage getNativePlayerImage(File file) {
-    return getNativeImage(file, true);
+  private static boolean isLegacySupported(TextureModelKey textureModelKey) {
+    // Textures without skin model are mod textures, which are always converted if needed.
+    return textureModelKey.getSkinModel() == null
+        || textureModelKey.getSkinModel() == SkinModel.HUMANOID
+        || textureModelKey.getSkinModel() == SkinModel.HUMANOID_SLIM;
   }
 
-  public static NativeImage getNativeImage(File file, boolean legacySupport) {
+  public static NativeImage getNativeImage(byte[] data, boolean legacySupport) {
     NativeImage nativeImage;
+    ByteBuffer byteBuffer = MemoryUtil.memAlloc(data.length);
     try {
-      InputStream inputStream = new FileInputStream(file);
-      nativeImage = NativeImage.read(inputStream);
-      inputStream.close();
+      byteBuffer.put(data);
+      byteBuffer.rewind();
+      nativeImage = NativeImage.read(byteBuffer);
     } catch (Exception exception) {
       log.error(
-          "{} Unable to get native image for file {} because of:", LOG_PREFIX, file, exception);
+          "{} Unable to get native image from texture data because of:", LOG_PREFIX, exception);
       return null;
+    } finally {
+      MemoryUtil.memFree(byteBuffer);
     }
 
     if (legacySupport && nativeImage.getWidth() == 64 && nativeImage.getHeight() == 32) {
@@ -28,6 +28,7 @@ import java.io.File;
 import java.util.List;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.server.MinecraftServer;
 
 public class BackupCommand extends CustomCommand {
 
@@ -61,13 +62,21 @@ public class BackupCommand extends CustomCommand {
     } else {
       sendFeedback(context, String.format("Found %s backups files ...\n===", backupFiles.size()));
       for (File backupFile : backupFiles) {
-        sendFeedback(
-            context,
-            String.format(
-                "\u25CB %s",
-                backupFile
-                    .getName()
-                    .replace("-" + PlayerCompanionsServerDataBackup.BACKUP_FILE_NAME, "")));
+        String fileName = backupFile.getName();
+        if (PlayerCompanionsServerDataBackup.isDeltaBackup(fileName)) {
+          sendFeedback(
+              context,
+              String.format(
+                  "\u25CB %s (delta)",
+                  fileName.replace(
+                      "-" + PlayerCompanionsServerDataBackup.DELTA_BACKUP_FILE_NAME, "")));
+        } else {
+          sendFeedback(
+              context,
+              String.format(
+                  "\u25CB %s",
+                  fileName.replace("-" + PlayerCompanionsServerDataBackup.BACKUP_FILE_NAME, "")));
+        }
       }
     }
     return 0;
@@ -75,15 +84,15 @@ public class BackupCommand extends CustomCommand {
 
   public int runLoad(CommandContext<CommandSourceStack> context) {
     final String fileName =
-        StringArgumentType.getString(context, "file_name")
-            + "-"
-            + PlayerCompanionsServerDataBackup.BACKUP_FILE_NAME;
+        PlayerCompanionsServerDataBackup.getBackupFileName(
+            StringArgumentType.getString(context, "file_name"));
     if (fileName.isEmpty()
         || fileName.contains("..")
         || fileName.contains("|")
         || fileName.contains("/")
         || fileName.contains("\\")
-        || !fileName.endsWith(PlayerCompanionsServerDataBackup.BACKUP_FILE_NAME)) {
+        || !(fileName.endsWith(PlayerCompanionsServerDataBackup.BACKUP_FILE_NAME)
+            || PlayerCompanionsServerDataBackup.isDeltaBackup(fileName))) {
       sendFeedback(context, String.format("Invalid file name %s !", fileName));
     } else {
       sendFeedback(context, String.format("Try to load backups from %s...", fileName));
@@ -100,12 +109,22 @@ public class BackupCommand extends CustomCommand {
 
   public int runSave(CommandContext<CommandSourceStack> context) {
     sendFeedback(context, "Save backup ...");
-    if (PlayerCompanionsServerDataBackup.saveBackup()) {
-      sendFeedback(context, "Backup was successfully created.");
-    } else {
-      sendFeedback(
-          context, "Failed to create backup, please check the logs for additional information!");
-    }
+
+    // Backup is written in the background, so report the result back on the server thread.
+    MinecraftServer server = context.getSource().getServer();
+    PlayerCompanionsServerDataBackup.saveBackup()
+        .thenAccept(
+            success ->
+                server.execute(
+                    () -> {
+                      if (Boolean.TRUE.equals(success)) {
+                        sendFeedback(context, "Backup was successfully created.");
+                      } else {
+                        sendFeedback(
+                            context,
+                            "Failed to create backup, please check the logs for additional information!");
+                      }
+                    }));
     return 0;
   }
 }
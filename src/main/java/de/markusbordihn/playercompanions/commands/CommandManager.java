@@ -46,6 +46,8 @@ public class CommandManager {
             .then(BackupCommand.register())
             .then(ListCommand.register())
             .then(OverviewCommand.register())
+            .then(ProfileCommand.register())
+            .then(StatsCommand.register())
             .then(SummonCommand.register())
             .then(VersionCommand.register())
         // @formatter:on
@@ -19,31 +19,96 @@
 
 package de.markusbordihn.playercompanions.commands;
 
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.ArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import de.markusbordihn.playercompanions.data.PlayerCompanionData;
 import de.markusbordihn.playercompanions.data.PlayerCompanionsServerData;
+import de.markusbordihn.playercompanions.entity.type.PlayerCompanionType;
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.UUID;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.server.level.ServerLevel;
 
 public class ListCommand extends CustomCommand {
 
   private static final ListCommand command = new ListCommand();
 
   public static ArgumentBuilder<CommandSourceStack, ?> register() {
-    return Commands.literal("list").requires(cs -> cs.hasPermission(2)).executes(command);
+    return Commands.literal("list")
+        .requires(cs -> cs.hasPermission(2))
+        .executes(command)
+        .then(Commands.literal("loaded").executes(command::runListLoaded))
+        .then(
+            Commands.literal("type")
+                .then(
+                    Commands.argument("type", StringArgumentType.word())
+                        .suggests(
+                            (context, builder) -> {
+                              for (PlayerCompanionType type : PlayerCompanionType.values()) {
+                                builder.suggest(type.name());
+                              }
+                              return builder.buildFuture();
+                            })
+                        .executes(command::runListType)))
+        .then(
+            Commands.literal("dimension")
+                .then(
+                    Commands.argument("dimension", DimensionArgument.dimension())
+                        .executes(command::runListDimension)));
   }
 
   @Override
   public int run(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
-    Map<UUID, PlayerCompanionData> playerCompanionsMap =
-        PlayerCompanionsServerData.get().getCompanions();
-    Iterator<PlayerCompanionData> playerCompanionIterator = playerCompanionsMap.values().iterator();
     sendFeedback(context, "All Player Companions (please check latest.log for full output)\n===");
+    listCompanions(context, PlayerCompanionsServerData.get().getCompanions().values());
+    return 0;
+  }
+
+  public int runListLoaded(CommandContext<CommandSourceStack> context) {
+    sendFeedback(
+        context, "Loaded Player Companions (please check latest.log for full output)\n===");
+    listCompanions(context, PlayerCompanionsServerData.get().getLoadedCompanions());
+    return 0;
+  }
+
+  public int runListType(CommandContext<CommandSourceStack> context) {
+    String typeName = StringArgumentType.getString(context, "type");
+    PlayerCompanionType type;
+    try {
+      type = PlayerCompanionType.valueOf(typeName.toUpperCase());
+    } catch (IllegalArgumentException exception) {
+      sendErrorFeedback(context, String.format("Unknown companion type %s !", typeName));
+      return 0;
+    }
+    sendFeedback(
+        context,
+        String.format(
+            "Player Companions of type %s (please check latest.log for full output)\n===", type));
+    listCompanions(context, PlayerCompanionsServerData.get().getCompanions(type));
+    return 0;
+  }
+
+  public int runListDimension(CommandContext<CommandSourceStack> context)
+      throws CommandSyntaxException {
+    ServerLevel serverLevel = DimensionArgument.getDimension(context, "dimension");
+    sendFeedback(
+        context,
+        String.format(
+            "Player Companions in %s (please check latest.log for full output)\n===",
+            serverLevel.dimension().location()));
+    listCompanions(
+        context, PlayerCompanionsServerData.get().getCompanions(serverLevel.dimension()));
+    return 0;
+  }
+
+  private static void listCompanions(
+      CommandContext<CommandSourceStack> context,
+      Collection<PlayerCompanionData> playerCompanions) {
+    Iterator<PlayerCompanionData> playerCompanionIterator = playerCompanions.iterator();
     while (playerCompanionIterator.hasNext()) {
       PlayerCompanionData playerCompanion = playerCompanionIterator.next();
       if (playerCompanion != null) {
@@ -57,6 +122,5 @@ public class ListCommand extends CustomCommand {
         log.info("{}", playerCompanion);
       }
     }
-    return 0;
   }
 }
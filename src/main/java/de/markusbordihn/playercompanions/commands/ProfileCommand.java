@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.commands;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import de.markusbordihn.playercompanions.metrics.PlayerCompanionsProfiler;
+import java.util.List;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+
+public class ProfileCommand extends CustomCommand {
+
+  private static final ProfileCommand command = new ProfileCommand();
+  private static final int DEFAULT_TOP_SECTIONS = 10;
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+    return Commands.literal("profile")
+        .requires(cs -> cs.hasPermission(2))
+        .executes(command)
+        .then(
+            Commands.literal("start")
+                .then(
+                    Commands.argument(
+                            "seconds",
+                            IntegerArgumentType.integer(1, PlayerCompanionsProfiler.MAX_DURATION))
+                        .executes(command::runStart)))
+        .then(Commands.literal("stop").executes(command::runStop))
+        .then(
+            Commands.literal("top")
+                .then(
+                    Commands.argument("count", IntegerArgumentType.integer(1, 100))
+                        .executes(command::runTop)));
+  }
+
+  @Override
+  public int run(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+    return showReport(context, DEFAULT_TOP_SECTIONS);
+  }
+
+  public int runStart(CommandContext<CommandSourceStack> context) {
+    int seconds = IntegerArgumentType.getInteger(context, "seconds");
+    PlayerCompanionsProfiler.start(seconds);
+    sendFeedback(
+        context,
+        String.format(
+            "Profiling player companion goals and features for %s seconds, use 'profile' to show"
+                + " the results.",
+            seconds));
+    return 0;
+  }
+
+  public int runStop(CommandContext<CommandSourceStack> context) {
+    if (!PlayerCompanionsProfiler.isEnabled()) {
+      sendErrorFeedback(context, "Player companion profiler is not running!");
+      return 0;
+    }
+    PlayerCompanionsProfiler.stop();
+    return showReport(context, DEFAULT_TOP_SECTIONS);
+  }
+
+  public int runTop(CommandContext<CommandSourceStack> context) {
+    return showReport(context, IntegerArgumentType.getInteger(context, "count"));
+  }
+
+  private static int showReport(CommandContext<CommandSourceStack> context, int limit) {
+    if (PlayerCompanionsProfiler.getProfiledTime() <= 0) {
+      sendFeedback(
+          context,
+          "No player companion profiling results, use 'profile start <seconds>' to start the"
+              + " profiler.");
+      return 0;
+    }
+    if (PlayerCompanionsProfiler.isEnabled()) {
+      sendFeedback(
+          context,
+          String.format(
+              "Profiler is running, %s seconds remaining ...",
+              PlayerCompanionsProfiler.getRemainingTime() / 1000));
+    }
+    List<String> report = PlayerCompanionsProfiler.getReport(limit);
+    sendFeedback(context, report.get(0) + "\n===");
+    for (String line : report.subList(1, report.size())) {
+      sendFeedback(context, line);
+    }
+    return 0;
+  }
+}
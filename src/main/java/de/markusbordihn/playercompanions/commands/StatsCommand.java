@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.commands;
+
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import de.markusbordihn.playercompanions.metrics.PlayerCompanionsMetrics;
+import java.io.File;
+import java.util.List;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+
+public class StatsCommand extends CustomCommand {
+
+  private static final StatsCommand command = new StatsCommand();
+
+  public static ArgumentBuilder<CommandSourceStack, ?> register() {
+    return Commands.literal("stats")
+        .requires(cs -> cs.hasPermission(2))
+        .executes(command)
+        .then(Commands.literal("dump").executes(command::runDump))
+        .then(Commands.literal("reset").executes(command::runReset))
+        .then(
+            Commands.literal("show")
+                .then(
+                    Commands.argument("prefix", StringArgumentType.word())
+                        .executes(command::runShow)));
+  }
+
+  @Override
+  public int run(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+    return showReport(context, "");
+  }
+
+  public int runShow(CommandContext<CommandSourceStack> context) {
+    return showReport(context, StringArgumentType.getString(context, "prefix"));
+  }
+
+  public int runReset(CommandContext<CommandSourceStack> context) {
+    MetricsRegistry.reset();
+    sendFeedback(context, "Player companion metrics were reset.");
+    return 0;
+  }
+
+  public int runDump(CommandContext<CommandSourceStack> context) {
+    File file = PlayerCompanionsMetrics.dump(context.getSource().getServer());
+    sendFeedback(context, String.format("Writing player companion metrics to %s ...", file));
+    return 0;
+  }
+
+  private static int showReport(CommandContext<CommandSourceStack> context, String prefix) {
+    if (!MetricsRegistry.isEnabled()) {
+      sendErrorFeedback(context, "Player companion metrics are disabled in the config!");
+      return 0;
+    }
+    List<String> report = MetricsRegistry.getReport(prefix);
+    if (report.isEmpty()) {
+      sendFeedback(context, String.format("Unable to find any metrics for '%s'!", prefix));
+      return 0;
+    }
+    sendFeedback(context, String.format("Player companion metrics (%s)\n===", report.size()));
+    for (String line : report) {
+      sendFeedback(context, "○ " + line);
+    }
+    return 0;
+  }
+}
@@ -81,6 +81,23 @@ public class CommonConfig {
 
     public final ForgeConfigSpec.BooleanValue dataBackupEnabled;
     public final ForgeConfigSpec.IntValue dataBackupInterval;
+    public final ForgeConfigSpec.IntValue dataBackupMaxFiles;
+    public final ForgeConfigSpec.IntValue dataBackupMaxDeltas;
+
+    public final ForgeConfigSpec.BooleanValue dataStoragePerOwner;
+
+    public final ForgeConfigSpec.BooleanValue dataLazyDecoding;
+    public final ForgeConfigSpec.IntValue dataUpdateMaxEntriesPerTick;
+    public final ForgeConfigSpec.IntValue dataUpdateMaxTimePerTick;
+    public final ForgeConfigSpec.IntValue featureTaskMaxTimePerTick;
+    public final ForgeConfigSpec.BooleanValue dormantModeEnabled;
+    public final ForgeConfigSpec.IntValue dormantOwnerDistance;
+    public final ForgeConfigSpec.BooleanValue dormantWhenOwnerOffline;
+    public final ForgeConfigSpec.BooleanValue dormantWhenOwnerInOtherDimension;
+    public final ForgeConfigSpec.BooleanValue dormantWhenOrderedToSit;
+    public final ForgeConfigSpec.IntValue textureCacheMaxMemory;
+    public final ForgeConfigSpec.BooleanValue metricsEnabled;
+    public final ForgeConfigSpec.IntValue metricsDumpInterval;
 
     public final ForgeConfigSpec.ConfigValue<List<String>> namesNPCFemale;
     public final ForgeConfigSpec.ConfigValue<List<String>> namesNPCMale;
@@ -160,6 +177,95 @@ public class CommonConfig {
           builder
               .comment("Time between automatic backups in minutes. (0 = disabled)")
               .defineInRange("dataBackupInterval", 1440, 0, 10080);
+      dataBackupMaxFiles =
+          builder
+              .comment("Max. number of backups to keep, older backups are removed. (0 = keep all)")
+              .defineInRange("dataBackupMaxFiles", 30, 0, 1000);
+      dataBackupMaxDeltas =
+          builder
+              .comment(
+                  "Max. number of delta backups before a new full backup is created. (0 = only full"
+                      + " backups)")
+              .defineInRange("dataBackupMaxDeltas", 7, 0, 1000);
+      builder.pop();
+
+      builder.push("Storage");
+      dataStoragePerOwner =
+          builder
+              .comment(
+                  "Store companion data in one file per owner, which is loaded on login and only saved on changes.")
+              .define("dataStoragePerOwner", false);
+      builder.pop();
+
+      builder.push("Performance");
+      dataLazyDecoding =
+          builder
+              .comment(
+                  "Decode the entity data and items of stored companions only on their first"
+                      + " access, instead of decoding all companions on load.")
+              .define("dataLazyDecoding", true);
+      dataUpdateMaxEntriesPerTick =
+          builder
+              .comment(
+                  "Max. number of queued companion data updates per tick, remaining updates are"
+                      + " deferred to the next tick. (0 = unlimited)")
+              .defineInRange("dataUpdateMaxEntriesPerTick", 32, 0, 1024);
+      dataUpdateMaxTimePerTick =
+          builder
+              .comment(
+                  "Max. time in milliseconds for queued companion data updates per tick, remaining"
+                      + " updates are deferred to the next tick. (0 = unlimited)")
+              .defineInRange("dataUpdateMaxTimePerTick", 2, 0, 50);
+      featureTaskMaxTimePerTick =
+          builder
+              .comment(
+                  "Max. time in milliseconds for scheduled companion feature tasks like collect,"
+                      + " heal or buff per tick, remaining tasks are deferred to the next tick."
+                      + " (0 = unlimited)")
+              .defineInRange("featureTaskMaxTimePerTick", 5, 0, 50);
+      dormantModeEnabled =
+          builder
+              .comment(
+                  "Enables the dormant mode, which freezes goals and feature ticks of owned"
+                      + " companions until they are woken up by damage, the owner or commands."
+                      + " Dormant companions will not guard, fight or collect items!")
+              .define("dormantModeEnabled", false);
+      dormantOwnerDistance =
+          builder
+              .comment(
+                  "Companions are dormant, if their owner is farther away than this distance in"
+                      + " blocks. (0 = disabled)")
+              .defineInRange("dormantOwnerDistance", 128, 0, 1024);
+      dormantWhenOwnerOffline =
+          builder
+              .comment("Companions are dormant, if their owner is offline.")
+              .define("dormantWhenOwnerOffline", true);
+      dormantWhenOwnerInOtherDimension =
+          builder
+              .comment("Companions are dormant, if their owner is in another dimension.")
+              .define("dormantWhenOwnerInOtherDimension", true);
+      dormantWhenOrderedToSit =
+          builder
+              .comment("Companions are dormant, if they are ordered to sit.")
+              .define("dormantWhenOrderedToSit", false);
+      textureCacheMaxMemory =
+          builder
+              .comment(
+                  "Max. memory in MB for client side companion skin textures, least recently used"
+                      + " textures are released and reloaded from the disk cache. (0 = unlimited)")
+              .defineInRange("textureCacheMaxMemory", 128, 0, 4096);
+      metricsEnabled =
+          builder
+              .comment(
+                  "Enables the runtime metrics for saves, network sync, feature ticks, goals and"
+                      + " textures, which are shown with the stats command.")
+              .define("metricsEnabled", true);
+      metricsDumpInterval =
+          builder
+              .comment(
+                  "Interval in minutes to write the runtime metrics to the"
+                      + " world/player_companions/metrics.txt file. (0 = disabled)")
+              .defineInRange("metricsDumpInterval", 0, 0, 1440);
       builder.pop();
 
       builder.push("NPC Names");
@@ -19,98 +19,60 @@
 
 package de.markusbordihn.playercompanions.data;
 
-import com.google.common.collect.Maps;
-import java.util.Map;
-import net.minecraft.Util;
+import java.util.Arrays;
 
 public class Experience {
 
   public static final int MIN_LEVEL = 1;
   public static final int MAX_LEVEL = 60;
 
-  protected static final Map<Integer, Integer> LevelExperienceMap =
-      Util.make(
-          Maps.newHashMap(),
-          hashMap -> {
-            hashMap.put(1, 1);
-            hashMap.put(2, 4);
-            hashMap.put(3, 12);
-            hashMap.put(4, 24);
-            hashMap.put(5, 40);
-            hashMap.put(6, 60);
-            hashMap.put(7, 84);
-            hashMap.put(8, 112);
-            hashMap.put(9, 144);
-            hashMap.put(10, 180);
-            hashMap.put(11, 220);
-            hashMap.put(12, 264);
-            hashMap.put(13, 312);
-            hashMap.put(14, 364);
-            hashMap.put(15, 420);
-            hashMap.put(16, 480);
-            hashMap.put(17, 544);
-            hashMap.put(18, 612);
-            hashMap.put(19, 684);
-            hashMap.put(20, 760);
-            hashMap.put(21, 840);
-            hashMap.put(22, 924);
-            hashMap.put(23, 1012);
-            hashMap.put(24, 1104);
-            hashMap.put(25, 1200);
-            hashMap.put(26, 1300);
-            hashMap.put(27, 1404);
-            hashMap.put(28, 1512);
-            hashMap.put(29, 1624);
-            hashMap.put(30, 1740);
-            hashMap.put(31, 1860);
-            hashMap.put(32, 1984);
-            hashMap.put(33, 2112);
-            hashMap.put(34, 2244);
-            hashMap.put(35, 2380);
-            hashMap.put(36, 2520);
-            hashMap.put(37, 2664);
-            hashMap.put(38, 2812);
-            hashMap.put(39, 2964);
-            hashMap.put(40, 3120);
-            hashMap.put(41, 3280);
-            hashMap.put(42, 3444);
-            hashMap.put(43, 3612);
-            hashMap.put(44, 3784);
-            hashMap.put(45, 3960);
-            hashMap.put(46, 4140);
-            hashMap.put(47, 4324);
-            hashMap.put(48, 4512);
-            hashMap.put(49, 4704);
-            hashMap.put(50, 4900);
-            hashMap.put(51, 5100);
-            hashMap.put(52, 5304);
-            hashMap.put(53, 5512);
-            hashMap.put(54, 5724);
-            hashMap.put(55, 5940);
-            hashMap.put(56, 6160);
-            hashMap.put(57, 6384);
-            hashMap.put(58, 6612);
-            hashMap.put(59, 6844);
-            hashMap.put(60, 7080);
-          });
+  // Required experience for each level, indexed by level (index 0 is unused).
+  private static final int[] LEVEL_EXPERIENCE = {
+    0, 1, 4, 12, 24, 40, 60, 84, 112, 144, 180, 220, 264, 312, 364, 420, 480, 544, 612, 684, 760,
+    840, 924, 1012, 1104, 1200, 1300, 1404, 1512, 1624, 1740, 1860, 1984, 2112, 2244, 2380, 2520,
+    2664, 2812, 2964, 3120, 3280, 3444, 3612, 3784, 3960, 4140, 4324, 4512, 4704, 4900, 5100, 5304,
+    5512, 5724, 5940, 6160, 6384, 6612, 6844, 7080
+  };
 
   protected Experience() {}
 
+  private static int clampLevel(int level) {
+    return Math.max(MIN_LEVEL, Math.min(level, MAX_LEVEL));
+  }
+
   public static int getExperienceForLevel(int level) {
-    return LevelExperienceMap.getOrDefault(level, null);
+    return LEVEL_EXPERIENCE[clampLevel(level)];
   }
 
   public static int getExperienceForNextLevel(int level) {
-    if (level < MAX_LEVEL) {
-      return LevelExperienceMap.getOrDefault(level + 1, null);
-    }
-    return LevelExperienceMap.get(MAX_LEVEL);
+    return LEVEL_EXPERIENCE[clampLevel(level + 1)];
   }
 
   public static int getExperienceDifferenceForLevel(int level) {
-    if (level > 1) {
-      return LevelExperienceMap.getOrDefault(level, 0)
-          - LevelExperienceMap.getOrDefault(level - 1, 0);
+    if (level > MIN_LEVEL && level <= MAX_LEVEL) {
+      return LEVEL_EXPERIENCE[level] - LEVEL_EXPERIENCE[level - 1];
+    }
+    return 0;
+  }
+
+  public static int getLevelForExperience(int experience) {
+    // Highest level, which required experience is reached.
+    int index = Arrays.binarySearch(LEVEL_EXPERIENCE, MIN_LEVEL, MAX_LEVEL + 1, experience);
+    return clampLevel(index >= 0 ? index : -index - 2);
+  }
+
+  public static int getLevelAdjustment(int level, int maxValue, int baseValue) {
+    return getLevelAdjustment(level, maxValue, baseValue, MAX_LEVEL);
+  }
+
+  public static int getLevelAdjustment(int level, int maxValue, int baseValue, int maxLevel) {
+    // Early return if we don't need to calculate anything.
+    if (level == 1 || maxValue == 0 || baseValue >= maxValue) {
+      return 0;
+    }
+    double factorPerLevel = (double) (maxValue - baseValue) / maxLevel;
+    if (factorPerLevel > 0) {
+      return (int) Math.floor(level * factorPerLevel + 0.5);
     }
     return 0;
   }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+
+/**
+ * Precomputed adjustments for each experience level for a value, which scales from a base value up
+ * to a max value. Optional includes a stable attribute modifier for each level, which all share
+ * the same UUID, so that they could be replaced without searching the existing modifiers.
+ */
+public class ExperienceScaling {
+
+  private static final Map<String, ExperienceScaling> scalingMap = new ConcurrentHashMap<>();
+
+  private final int maxValue;
+  private final int baseValue;
+  private final int[] adjustments = new int[Experience.MAX_LEVEL + 1];
+  private final AttributeModifier[] modifiers = new AttributeModifier[Experience.MAX_LEVEL + 1];
+
+  private ExperienceScaling(String modifierName, int maxValue, int baseValue) {
+    this.maxValue = maxValue;
+    this.baseValue = baseValue;
+    UUID modifierUUID = modifierName != null ? getModifierUUID(modifierName) : null;
+    for (int level = Experience.MIN_LEVEL; level <= Experience.MAX_LEVEL; level++) {
+      int adjustment = Experience.getLevelAdjustment(level, maxValue, baseValue);
+      this.adjustments[level] = adjustment;
+      if (modifierUUID != null && adjustment > 0) {
+        this.modifiers[level] =
+            new AttributeModifier(
+                modifierUUID, modifierName, adjustment, AttributeModifier.Operation.ADDITION);
+      }
+    }
+  }
+
+  public static ExperienceScaling get(int maxValue, int baseValue) {
+    return get(null, maxValue, baseValue);
+  }
+
+  public static ExperienceScaling get(String modifierName, int maxValue, int baseValue) {
+    return scalingMap.computeIfAbsent(
+        modifierName + ":" + maxValue + ":" + baseValue,
+        key -> new ExperienceScaling(modifierName, maxValue, baseValue));
+  }
+
+  public static UUID getModifierUUID(String modifierName) {
+    return UUID.nameUUIDFromBytes(modifierName.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public boolean is(int maxValue, int baseValue) {
+    return this.maxValue == maxValue && this.baseValue == baseValue;
+  }
+
+  public int getAdjustment(int level) {
+    return level >= Experience.MIN_LEVEL
+        ? this.adjustments[Math.min(level, Experience.MAX_LEVEL)]
+        : 0;
+  }
+
+  /** Returns the attribute modifier for the level or null, if there is nothing to adjust. */
+  public AttributeModifier getModifier(int level) {
+    return level >= Experience.MIN_LEVEL
+        ? this.modifiers[Math.min(level, Experience.MAX_LEVEL)]
+        : null;
+  }
+}
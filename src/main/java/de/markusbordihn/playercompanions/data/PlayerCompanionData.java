@@ -20,16 +20,21 @@
 package de.markusbordihn.playercompanions.data;
 
 import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.config.CommonConfig;
 import de.markusbordihn.playercompanions.entity.ActionType;
 import de.markusbordihn.playercompanions.entity.AggressionLevel;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
 import de.markusbordihn.playercompanions.entity.type.PlayerCompanionType;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtUtils;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
@@ -47,6 +52,7 @@ public class PlayerCompanionData {
 
   public static final String UUID_TAG = "UUID";
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final CommonConfig.Config COMMON = CommonConfig.COMMON;
   private static final String ACTIVE_TAG = "Active";
   private static final String ENTITY_ACTION_TYPE = "EntityActionType";
   private static final String ENTITY_AGGRESSION_LEVEL = "EntityAggressionLevel";
@@ -70,15 +76,22 @@ public class PlayerCompanionData {
   private static final String POSITION_TAG = "Position";
   private static final String REMOVED_TAG = "Removed";
   private static final String TYPE_TAG = "Type";
+  private static final String NOT_DECODED = "(not decoded)";
+  private static final int ARMOR_SLOTS = 4;
+  private static final int HAND_SLOTS = 2;
+  private static final int INVENTORY_SLOTS = 16;
+  private static final Set<PlayerCompanionDataField> PARTIAL_LOAD_FIELDS =
+      EnumSet.of(PlayerCompanionDataField.HEALTH, PlayerCompanionDataField.POSITION);
   private ActionType entityActionType = ActionType.UNKNOWN;
   private AggressionLevel entityAggressionLevel = AggressionLevel.UNKNOWN;
   private BlockPos blockPos;
   private ClientLevel clientLevel;
   private CompoundTag entityData;
   private EntityType<?> entityType;
-  private NonNullList<ItemStack> armorItems = NonNullList.withSize(4, ItemStack.EMPTY);
-  private NonNullList<ItemStack> handItems = NonNullList.withSize(2, ItemStack.EMPTY);
-  private NonNullList<ItemStack> inventoryItems = NonNullList.withSize(16, ItemStack.EMPTY);
+  private NonNullList<ItemStack> armorItems = NonNullList.withSize(ARMOR_SLOTS, ItemStack.EMPTY);
+  private NonNullList<ItemStack> handItems = NonNullList.withSize(HAND_SLOTS, ItemStack.EMPTY);
+  private NonNullList<ItemStack> inventoryItems =
+      NonNullList.withSize(INVENTORY_SLOTS, ItemStack.EMPTY);
   private PlayerCompanionEntity companionEntity;
   private PlayerCompanionType type = PlayerCompanionType.UNKNOWN;
   private ResourceKey<Level> level;
@@ -91,6 +104,7 @@ public class PlayerCompanionData {
   private UUID companionUUID = null;
   private UUID ownerUUID = null;
   private boolean active = true;
+  private boolean dirty = true;
   private boolean entityOrderedToPosition = false;
   private boolean entitySitOnShoulder = false;
   private boolean entitySitting = false;
@@ -102,9 +116,21 @@ public class PlayerCompanionData {
   private int entityExperienceLevel = 1;
   private int entityId;
   private int entityRespawnTimer;
+  // Increased on every change to detect outdated client data without comparing the content.
+  private int version;
+  // Cached save data, which is reused as long as the companion is not dirty.
+  private CompoundTag cachedCompoundTag;
+  // Stored data with not yet decoded entity data, entity type and items.
+  private CompoundTag undecodedCompoundTag;
+  // Changed data fields since the last sync and last known equipment and inventory to detect
+  // changes.
+  private final Set<PlayerCompanionDataField> changedFields =
+      EnumSet.allOf(PlayerCompanionDataField.class);
+  private final ItemStack[] equipmentSnapshot = new ItemStack[ARMOR_SLOTS + HAND_SLOTS];
+  private final ItemStack[] inventorySnapshot = new ItemStack[INVENTORY_SLOTS];
 
   public PlayerCompanionData(PlayerCompanionEntity companion) {
-    load(companion);
+    load(companion, true);
   }
 
   public PlayerCompanionData(CompoundTag compoundTag) {
@@ -156,13 +182,19 @@ public class PlayerCompanionData {
 
   public void setEntityId(int entityId) {
     this.entityId = entityId;
+    this.changedFields.add(PlayerCompanionDataField.ENTITY);
     this.setDirty();
   }
 
   public EntityType<?> getEntityType() {
+    this.decodeData();
     return this.entityType;
   }
 
+  public ResourceKey<Level> getLevel() {
+    return this.level;
+  }
+
   public String getDimensionName() {
     return this.entityDimension;
   }
@@ -181,6 +213,8 @@ public class PlayerCompanionData {
 
   public void setEntityActionType(ActionType actionType) {
     this.entityActionType = actionType;
+    this.changedFields.add(PlayerCompanionDataField.ACTION_TYPE);
+    this.setDirty();
   }
 
   public AggressionLevel getEntityAggressionLevel() {
@@ -189,6 +223,8 @@ public class PlayerCompanionData {
 
   public void setEntityAggressionLevel(AggressionLevel aggressionLevel) {
     this.entityAggressionLevel = aggressionLevel;
+    this.changedFields.add(PlayerCompanionDataField.AGGRESSION_LEVEL);
+    this.setDirty();
   }
 
   public PlayerCompanionEntity getPlayerCompanionEntity() {
@@ -215,6 +251,7 @@ public class PlayerCompanionData {
   }
 
   public CompoundTag getEntityData() {
+    this.decodeData();
     return this.entityData;
   }
 
@@ -226,7 +263,9 @@ public class PlayerCompanionData {
 
   public void syncEntityData(LivingEntity livingEntity) {
     if (livingEntity != null) {
+      this.decodeData();
       this.entityData = livingEntity.serializeNBT();
+      this.setDirty();
     }
   }
 
@@ -248,68 +287,89 @@ public class PlayerCompanionData {
   }
 
   public NonNullList<ItemStack> getArmorItems() {
+    this.decodeData();
     return this.armorItems;
   }
 
   public void setArmorItems(NonNullList<ItemStack> armor) {
+    this.decodeData();
     this.armorItems = armor;
+    this.changedFields.add(PlayerCompanionDataField.EQUIPMENT);
     this.setDirty();
   }
 
   public void setArmorItem(int index, ItemStack itemStack) {
+    this.decodeData();
     this.armorItems.set(index, itemStack);
+    this.changedFields.add(PlayerCompanionDataField.EQUIPMENT);
     this.setDirty();
   }
 
   public ItemStack getArmorItem(int index) {
+    this.decodeData();
     return this.armorItems.get(index);
   }
 
   public int getArmorItemsSize() {
+    this.decodeData();
     return this.armorItems.size();
   }
 
   public NonNullList<ItemStack> getHandItems() {
+    this.decodeData();
     return this.handItems;
   }
 
   public void setHandItems(NonNullList<ItemStack> hand) {
+    this.decodeData();
     this.handItems = hand;
+    this.changedFields.add(PlayerCompanionDataField.EQUIPMENT);
     this.setDirty();
   }
 
   public void setHandItem(int index, ItemStack itemStack) {
+    this.decodeData();
     this.handItems.set(index, itemStack);
+    this.changedFields.add(PlayerCompanionDataField.EQUIPMENT);
     this.setDirty();
   }
 
   public ItemStack getHandItem(int index) {
+    this.decodeData();
     return this.handItems.get(index);
   }
 
   public int getHandItemsSize() {
+    this.decodeData();
     return this.handItems.size();
   }
 
   public NonNullList<ItemStack> getInventoryItems() {
+    this.decodeData();
     return this.inventoryItems;
   }
 
   public void setInventoryItems(NonNullList<ItemStack> inventory) {
+    this.decodeData();
     this.inventoryItems = inventory;
+    this.changedFields.add(PlayerCompanionDataField.EQUIPMENT);
     this.setDirty();
   }
 
   public void setInventoryItem(int index, ItemStack itemStack) {
+    this.decodeData();
     this.inventoryItems.set(index, itemStack);
+    this.changedFields.add(PlayerCompanionDataField.EQUIPMENT);
     this.setDirty();
   }
 
   public ItemStack getInventoryItem(int index) {
+    this.decodeData();
     return this.inventoryItems.get(index);
   }
 
   public int getInventoryItemsSize() {
+    this.decodeData();
     return this.inventoryItems.size();
   }
 
@@ -328,6 +388,8 @@ public class PlayerCompanionData {
             && existingItems.is(item)
             && existingItems.getCount() + numberOfItems < existingItems.getMaxStackSize()) {
           existingItems.grow(numberOfItems);
+          this.changedFields.add(PlayerCompanionDataField.EQUIPMENT);
+          this.setDirty();
           return true;
         }
       }
@@ -351,63 +413,227 @@ public class PlayerCompanionData {
   }
 
   public void load(PlayerCompanionEntity companion) {
+    load(companion, false);
+  }
+
+  public void load(PlayerCompanionEntity companion, boolean includeEntityData) {
+    // Stored data which are not part of the entity, like the inventory, needs to be decoded first.
+    this.decodeData();
+    Set<PlayerCompanionDataField> loadedChangedFields =
+        EnumSet.noneOf(PlayerCompanionDataField.class);
     this.companionEntity = companion;
     this.companionUUID = companion.getUUID();
-    this.name =
+
+    // Name and type
+    String companionName =
         companion.hasCustomName()
             ? companion.getCustomName().getString()
-            : companion.getRandomName();
-    this.type = companion.getCompanionType();
+            : (this.name.isEmpty() ? companion.getRandomName() : this.name);
+    if (!companionName.equals(this.name) || this.type != companion.getCompanionType()) {
+      this.name = companionName;
+      this.type = companion.getCompanionType();
+      loadedChangedFields.add(PlayerCompanionDataField.NAME);
+    }
+
+    // Owner
     this.hasOwner = companion.hasOwner();
     if (this.hasOwner) {
-      this.ownerUUID = companion.getOwnerUUID();
-      if (companion.getOwner() != null) {
-        this.ownerName = companion.getOwner().getName().getString();
+      UUID companionOwnerUUID = companion.getOwnerUUID();
+      String companionOwnerName =
+          companion.getOwner() != null
+              ? companion.getOwner().getName().getString()
+              : this.ownerName;
+      if (!Objects.equals(companionOwnerUUID, this.ownerUUID)
+          || !companionOwnerName.equals(this.ownerName)) {
+        this.ownerUUID = companionOwnerUUID;
+        this.ownerName = companionOwnerName;
+        loadedChangedFields.add(PlayerCompanionDataField.OWNER);
       }
     }
-    this.blockPos = companion.blockPosition();
-    this.level = companion.level().dimension();
-    this.levelName = this.level.registry() + "/" + this.level.location();
-    this.entityId = companion.getId();
-    this.entityActionType = companion.getActionType();
-    this.entityAggressionLevel = companion.getAggressionLevel();
-    this.entityDimension = companion.getDimensionName();
-    this.entityExperience = companion.getExperience();
-    this.entityExperienceLevel = companion.getExperienceLevel();
-    this.entityHealth = companion.getHealth();
-    this.entityHealthMax = companion.getMaxHealth();
-    this.entityType = companion.getType();
-    this.entityRespawnTimer = companion.getRespawnTimer();
-    this.entitySitting = companion.isOrderedToSit();
-    this.entityOrderedToPosition = companion.isOrderedToPosition();
-    this.entitySitOnShoulder = companion.isSitOnShoulder();
-    this.entityData = companion.serializeNBT();
-
-    // Entity Target
+
+    // Position, dimension and level references
+    loadPosition(companion, loadedChangedFields);
+
+    // Entity id and type
+    if (this.entityId != companion.getId() || this.entityType != companion.getType()) {
+      this.entityId = companion.getId();
+      this.entityType = companion.getType();
+      loadedChangedFields.add(PlayerCompanionDataField.ENTITY);
+    }
+
+    // Action type and aggression level
+    if (this.entityActionType != companion.getActionType()) {
+      this.entityActionType = companion.getActionType();
+      loadedChangedFields.add(PlayerCompanionDataField.ACTION_TYPE);
+    }
+    if (this.entityAggressionLevel != companion.getAggressionLevel()) {
+      this.entityAggressionLevel = companion.getAggressionLevel();
+      loadedChangedFields.add(PlayerCompanionDataField.AGGRESSION_LEVEL);
+    }
+
+    // Experience
+    if (this.entityExperience != companion.getExperience()
+        || this.entityExperienceLevel != companion.getExperienceLevel()) {
+      this.entityExperience = companion.getExperience();
+      this.entityExperienceLevel = companion.getExperienceLevel();
+      loadedChangedFields.add(PlayerCompanionDataField.EXPERIENCE);
+    }
+
+    // Health
+    loadHealth(companion, loadedChangedFields);
+
+    // State and entity target
     LivingEntity target = companion.getTarget();
-    this.entityTarget = target == null || target.getEncodeId() == null ? "" : target.getEncodeId();
+    String companionTarget =
+        target == null || target.getEncodeId() == null ? "" : target.getEncodeId();
+    if (this.entityRespawnTimer != companion.getRespawnTimer()
+        || this.entitySitting != companion.isOrderedToSit()
+        || this.entityOrderedToPosition != companion.isOrderedToPosition()
+        || this.entitySitOnShoulder != companion.isSitOnShoulder()
+        || !companionTarget.equals(this.entityTarget)) {
+      this.entityRespawnTimer = companion.getRespawnTimer();
+      this.entitySitting = companion.isOrderedToSit();
+      this.entityOrderedToPosition = companion.isOrderedToPosition();
+      this.entitySitOnShoulder = companion.isSitOnShoulder();
+      this.entityTarget = companionTarget;
+      loadedChangedFields.add(PlayerCompanionDataField.STATE);
+    }
 
-    // Handle level references (client and server)
-    Level companionLevel = companion.level();
-    if (companionLevel != null) {
-      if (companionLevel.isClientSide) {
-        this.clientLevel = (ClientLevel) companion.level();
-      } else {
-        this.serverLevel = (ServerLevel) companion.level();
-      }
+    // Handle armor and hand items, which are referencing the entity slots directly.
+    this.armorItems = (NonNullList<ItemStack>) companion.getArmorSlots();
+    this.handItems = (NonNullList<ItemStack>) companion.getHandSlots();
+    if (hasEquipmentChanged() || hasInventoryChanged()) {
+      loadedChangedFields.add(PlayerCompanionDataField.EQUIPMENT);
     }
 
-    // Handle armor items.
-    setArmorItems((NonNullList<ItemStack>) companion.getArmorSlots());
+    // The full entity data are only serialized if requested, otherwise on the next save.
+    if (includeEntityData) {
+      this.entityData = companion.serializeNBT();
+    }
 
-    // Handle hand items.
-    setHandItems((NonNullList<ItemStack>) companion.getHandSlots());
+    // Cached save data are only outdated, if anything has changed.
+    if (!loadedChangedFields.isEmpty() || includeEntityData) {
+      this.changedFields.addAll(loadedChangedFields);
+      this.setDirty();
+    }
 
     log.debug(
-        "Loaded PlayerCompanion {} data over entity with {} and data {}",
+        "Loaded PlayerCompanion {} data over entity with {} and changed fields {}",
         this.name,
         this,
-        this.entityData);
+        loadedChangedFields);
+  }
+
+  /**
+   * Updates only the given position and health fields from the companion entity, which are the
+   * most frequent changes. Any other fields are updated with a full load instead.
+   */
+  public void load(PlayerCompanionEntity companion, Set<PlayerCompanionDataField> fields) {
+    if (!PARTIAL_LOAD_FIELDS.containsAll(fields)) {
+      load(companion, false);
+      return;
+    }
+    Set<PlayerCompanionDataField> loadedChangedFields =
+        EnumSet.noneOf(PlayerCompanionDataField.class);
+    this.companionEntity = companion;
+    if (fields.contains(PlayerCompanionDataField.POSITION)) {
+      loadPosition(companion, loadedChangedFields);
+    }
+    if (fields.contains(PlayerCompanionDataField.HEALTH)) {
+      loadHealth(companion, loadedChangedFields);
+    }
+    if (!loadedChangedFields.isEmpty()) {
+      this.changedFields.addAll(loadedChangedFields);
+      this.setDirty();
+    }
+  }
+
+  private void loadPosition(
+      PlayerCompanionEntity companion, Set<PlayerCompanionDataField> loadedChangedFields) {
+    BlockPos companionBlockPos = companion.blockPosition();
+    Level companionLevel = companion.level();
+    ResourceKey<Level> companionLevelKey = companionLevel.dimension();
+    if (!companionBlockPos.equals(this.blockPos)
+        || companionLevelKey != this.level
+        || !companion.getDimensionName().equals(this.entityDimension)) {
+      this.blockPos = companionBlockPos;
+      if (companionLevelKey != this.level) {
+        this.level = companionLevelKey;
+        this.levelName = this.level.registry() + "/" + this.level.location();
+      }
+      this.entityDimension = companion.getDimensionName();
+      loadedChangedFields.add(PlayerCompanionDataField.POSITION);
+    }
+
+    // Handle level references (client and server)
+    if (companionLevel.isClientSide) {
+      this.clientLevel = (ClientLevel) companionLevel;
+    } else {
+      this.serverLevel = (ServerLevel) companionLevel;
+    }
+  }
+
+  private void loadHealth(
+      PlayerCompanionEntity companion, Set<PlayerCompanionDataField> loadedChangedFields) {
+    if (this.entityHealth != companion.getHealth()
+        || this.entityHealthMax != companion.getMaxHealth()) {
+      this.entityHealth = companion.getHealth();
+      this.entityHealthMax = companion.getMaxHealth();
+      loadedChangedFields.add(PlayerCompanionDataField.HEALTH);
+    }
+  }
+
+  private boolean hasEquipmentChanged() {
+    // Compare the equipment with the last known equipment, without serializing any item.
+    boolean changed = false;
+    int armorItemsSize = Math.min(this.armorItems.size(), ARMOR_SLOTS);
+    for (int index = 0; index < armorItemsSize; index++) {
+      changed |= updateEquipmentSnapshot(index, this.armorItems.get(index));
+    }
+    int handItemsSize = Math.min(this.handItems.size(), HAND_SLOTS);
+    for (int index = 0; index < handItemsSize; index++) {
+      changed |= updateEquipmentSnapshot(ARMOR_SLOTS + index, this.handItems.get(index));
+    }
+    return changed;
+  }
+
+  private boolean hasInventoryChanged() {
+    // Inventory items could be changed in place over the companion menu or features.
+    boolean changed = false;
+    int inventoryItemsSize = Math.min(this.inventoryItems.size(), INVENTORY_SLOTS);
+    for (int index = 0; index < inventoryItemsSize; index++) {
+      changed |= updateSnapshot(this.inventorySnapshot, index, this.inventoryItems.get(index));
+    }
+    return changed;
+  }
+
+  private boolean updateEquipmentSnapshot(int index, ItemStack itemStack) {
+    return updateSnapshot(this.equipmentSnapshot, index, itemStack);
+  }
+
+  private static boolean updateSnapshot(ItemStack[] snapshot, int index, ItemStack itemStack) {
+    ItemStack lastItemStack = snapshot[index];
+    if (lastItemStack != null && ItemStack.matches(lastItemStack, itemStack)) {
+      return false;
+    }
+    snapshot[index] = itemStack.copy();
+    return true;
+  }
+
+  public Set<PlayerCompanionDataField> getChangedFields() {
+    return this.changedFields;
+  }
+
+  public boolean hasChangedFields() {
+    return !this.changedFields.isEmpty();
+  }
+
+  public boolean hasChangedField(PlayerCompanionDataField field) {
+    return this.changedFields.contains(field);
+  }
+
+  public void clearChangedFields() {
+    this.changedFields.clear();
   }
 
   public void load(CompoundTag compoundTag) {
@@ -427,23 +653,11 @@ public class PlayerCompanionData {
     this.isRemoved = compoundTag.getBoolean(REMOVED_TAG);
     this.blockPos = NbtUtils.readBlockPos(compoundTag.getCompound(POSITION_TAG));
     if (compoundTag.contains(LEVEL_TAG)) {
-      this.levelName = compoundTag.getString(LEVEL_TAG);
-      if (this.levelName.contains("/")) {
-        String[] levelNameParts = this.levelName.split("/");
-        ResourceLocation registryName = new ResourceLocation(levelNameParts[0]);
-        ResourceLocation locationName = new ResourceLocation(levelNameParts[1]);
-        this.level = ResourceKey.create(ResourceKey.createRegistryKey(registryName), locationName);
-      }
+      loadLevelName(compoundTag.getString(LEVEL_TAG));
     }
     if (compoundTag.contains(ENTITY_ID_TAG)) {
       this.entityId = compoundTag.getInt(ENTITY_ID_TAG);
     }
-    if (compoundTag.contains(ENTITY_TYPE_TAG)) {
-      this.entityType =
-          ForgeRegistries.ENTITY_TYPES.getValue(
-              new ResourceLocation(compoundTag.getString(ENTITY_TYPE_TAG)));
-    }
-    this.entityData = compoundTag.getCompound(ENTITY_DATA_TAG);
     this.entityDimension = compoundTag.getString(ENTITY_DIMENSION);
     this.entityExperience = compoundTag.getInt(ENTITY_EXPERIENCE_TAG);
     this.entityExperienceLevel = compoundTag.getInt(ENTITY_EXPERIENCE_LEVEL_TAG);
@@ -466,6 +680,39 @@ public class PlayerCompanionData {
           AggressionLevel.get(compoundTag.getString(ENTITY_AGGRESSION_LEVEL));
     }
 
+    // Entity type, entity data and items are only decoded on first access, if enabled.
+    this.undecodedCompoundTag = compoundTag;
+    if (!Boolean.TRUE.equals(COMMON.dataLazyDecoding.get())) {
+      this.decodeData();
+    }
+
+    // Data are loaded from disk or network, so there is nothing new to save until next change.
+    this.cachedCompoundTag = compoundTag;
+    this.dirty = false;
+    this.version++;
+
+    log.trace("Loaded PlayerCompanion {} data over compoundTag with {}", this.name, this);
+  }
+
+  public boolean isDataDecoded() {
+    return this.undecodedCompoundTag == null;
+  }
+
+  private void decodeData() {
+    if (this.undecodedCompoundTag == null) {
+      return;
+    }
+    CompoundTag compoundTag = this.undecodedCompoundTag;
+    this.undecodedCompoundTag = null;
+
+    // Entity type and data
+    if (compoundTag.contains(ENTITY_TYPE_TAG)) {
+      this.entityType =
+          ForgeRegistries.ENTITY_TYPES.getValue(
+              new ResourceLocation(compoundTag.getString(ENTITY_TYPE_TAG)));
+    }
+    this.entityData = compoundTag.getCompound(ENTITY_DATA_TAG);
+
     // Load Armor
     PlayerCompanionDataHelper.loadArmorItems(compoundTag, this.armorItems);
 
@@ -475,18 +722,185 @@ public class PlayerCompanionData {
     // Load inventory
     PlayerCompanionDataHelper.loadInventoryItems(compoundTag, this.inventoryItems);
 
-    log.trace("Loaded PlayerCompanion {} data over compoundTag with {}", this.name, this);
+    log.trace("Decoded PlayerCompanion {} data with {}", this.name, this);
+  }
+
+  private void loadLevelName(String levelName) {
+    this.levelName = levelName;
+    if (this.levelName.contains("/")) {
+      String[] levelNameParts = this.levelName.split("/");
+      ResourceLocation registryName = new ResourceLocation(levelNameParts[0]);
+      ResourceLocation locationName = new ResourceLocation(levelNameParts[1]);
+      this.level = ResourceKey.create(ResourceKey.createRegistryKey(registryName), locationName);
+    }
+  }
+
+  /**
+   * Writes only the given changed fields in a compact binary format. Equipment changes are not
+   * supported and needs to be synced with the full meta data instead.
+   */
+  public void writeDelta(FriendlyByteBuf buffer, Set<PlayerCompanionDataField> fields) {
+    int fieldMask = 0;
+    for (PlayerCompanionDataField field : fields) {
+      if (field != PlayerCompanionDataField.EQUIPMENT) {
+        fieldMask |= 1 << field.ordinal();
+      }
+    }
+    buffer.writeVarInt(fieldMask);
+    for (PlayerCompanionDataField field : PlayerCompanionDataField.values()) {
+      if ((fieldMask & (1 << field.ordinal())) == 0) {
+        continue;
+      }
+      switch (field) {
+        case ACTION_TYPE:
+          buffer.writeVarInt(this.entityActionType.ordinal());
+          break;
+        case AGGRESSION_LEVEL:
+          buffer.writeVarInt(this.entityAggressionLevel.ordinal());
+          break;
+        case ENTITY:
+          buffer.writeVarInt(this.entityId);
+          buffer.writeResourceLocation(EntityType.getKey(this.getEntityType()));
+          break;
+        case EXPERIENCE:
+          buffer.writeVarInt(this.entityExperience);
+          buffer.writeVarInt(this.entityExperienceLevel);
+          break;
+        case HEALTH:
+          buffer.writeFloat(this.entityHealth);
+          buffer.writeFloat(this.entityHealthMax);
+          break;
+        case NAME:
+          buffer.writeUtf(this.name);
+          buffer.writeVarInt(this.type.ordinal());
+          break;
+        case OWNER:
+          buffer.writeUUID(this.ownerUUID != null ? this.ownerUUID : Constants.BLANK_UUID);
+          buffer.writeUtf(this.ownerName);
+          break;
+        case POSITION:
+          buffer.writeBlockPos(this.blockPos);
+          buffer.writeUtf(this.levelName);
+          buffer.writeUtf(this.entityDimension);
+          break;
+        case STATE:
+          buffer.writeVarInt(this.entityRespawnTimer);
+          buffer.writeByte(
+              (this.entitySitting ? 1 : 0)
+                  | (this.entitySitOnShoulder ? 2 : 0)
+                  | (this.entityOrderedToPosition ? 4 : 0));
+          buffer.writeUtf(this.entityTarget == null ? "" : this.entityTarget);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * Applies changed fields, which were written by {@link #writeDelta}. Unknown fields and enum
+   * values are ignored, because they could only be sent by a different protocol version.
+   */
+  public void readDelta(FriendlyByteBuf buffer) {
+    int fieldMask = buffer.readVarInt();
+    if ((fieldMask >>> PlayerCompanionDataField.values().length) != 0) {
+      log.warn("Ignoring unknown delta fields {} for {}", Integer.toBinaryString(fieldMask), this);
+    }
+    for (PlayerCompanionDataField field : PlayerCompanionDataField.values()) {
+      if ((fieldMask & (1 << field.ordinal())) == 0) {
+        continue;
+      }
+      switch (field) {
+        case ACTION_TYPE:
+          this.entityActionType = readEnum(buffer, ActionType.values(), this.entityActionType);
+          break;
+        case AGGRESSION_LEVEL:
+          this.entityAggressionLevel =
+              readEnum(buffer, AggressionLevel.values(), this.entityAggressionLevel);
+          break;
+        case ENTITY:
+          this.entityId = buffer.readVarInt();
+          ResourceLocation entityTypeName = buffer.readResourceLocation();
+          this.decodeData();
+          this.entityType = ForgeRegistries.ENTITY_TYPES.getValue(entityTypeName);
+          break;
+        case EXPERIENCE:
+          this.entityExperience = buffer.readVarInt();
+          this.entityExperienceLevel = buffer.readVarInt();
+          break;
+        case HEALTH:
+          this.entityHealth = buffer.readFloat();
+          this.entityHealthMax = buffer.readFloat();
+          break;
+        case NAME:
+          this.name = buffer.readUtf();
+          this.type = readEnum(buffer, PlayerCompanionType.values(), this.type);
+          break;
+        case OWNER:
+          UUID deltaOwnerUUID = buffer.readUUID();
+          this.ownerUUID = Constants.BLANK_UUID.equals(deltaOwnerUUID) ? null : deltaOwnerUUID;
+          this.hasOwner = this.ownerUUID != null;
+          this.ownerName = buffer.readUtf();
+          break;
+        case POSITION:
+          this.blockPos = buffer.readBlockPos();
+          loadLevelName(buffer.readUtf());
+          this.entityDimension = buffer.readUtf();
+          break;
+        case STATE:
+          this.entityRespawnTimer = buffer.readVarInt();
+          byte stateFlags = buffer.readByte();
+          this.entitySitting = (stateFlags & 1) != 0;
+          this.entitySitOnShoulder = (stateFlags & 2) != 0;
+          this.entityOrderedToPosition = (stateFlags & 4) != 0;
+          this.entityTarget = buffer.readUtf();
+          break;
+        default:
+          break;
+      }
+    }
+
+    // Cached data are outdated, but there is no need to mark the data as dirty on the client.
+    this.cachedCompoundTag = null;
+    this.version++;
+  }
+
+  private static <T extends Enum<T>> T readEnum(
+      FriendlyByteBuf buffer, T[] values, T defaultValue) {
+    int ordinal = buffer.readVarInt();
+    if (ordinal < 0 || ordinal >= values.length) {
+      log.warn("Ignoring unknown delta value {} for {}", ordinal, defaultValue.getClass());
+      return defaultValue;
+    }
+    return values[ordinal];
   }
 
   public CompoundTag save(CompoundTag compoundTag) {
     return save(compoundTag, true);
   }
 
+  public boolean isDirty() {
+    return this.dirty || this.cachedCompoundTag == null;
+  }
+
+  /**
+   * Returns the full save data for this companion and only re-serialize the data, if the companion
+   * was changed since the last save. The returned tag is shared and should not be modified.
+   */
+  public CompoundTag saveIfDirty() {
+    if (isDirty()) {
+      this.cachedCompoundTag = save(new CompoundTag(), true);
+      this.dirty = false;
+    }
+    return this.cachedCompoundTag;
+  }
+
   public CompoundTag saveMetaData(CompoundTag compoundTag) {
     return save(compoundTag, false);
   }
 
   public CompoundTag save(CompoundTag compoundTag, boolean includeData) {
+    this.decodeData();
     compoundTag.putUUID(UUID_TAG, this.companionUUID);
     compoundTag.putString(NAME_TAG, this.name);
     compoundTag.putString(TYPE_TAG, this.type.name());
@@ -503,8 +917,8 @@ public class PlayerCompanionData {
     // Try to get current Player Companion if not exists.
     PlayerCompanionEntity playerCompanionEntity = this.getPlayerCompanionEntity();
 
-    // Storing current companion entity data if available (regardless of disc status)
-    if (playerCompanionEntity != null && playerCompanionEntity.isAlive()) {
+    // Storing current companion entity data if available and needed (regardless of disc status)
+    if (includeData && playerCompanionEntity != null && playerCompanionEntity.isAlive()) {
       this.entityData = playerCompanionEntity.serializeNBT();
     }
 
@@ -543,11 +957,9 @@ public class PlayerCompanionData {
           ENTITY_TARGET_TAG,
           target == null || target.getEncodeId() == null ? "" : target.getEncodeId());
 
-      // Get current armor items from entity to be in sync.
-      setArmorItems((NonNullList<ItemStack>) playerCompanionEntity.getArmorSlots());
-
-      // Get current hand items from entity to be in sync.
-      setHandItems((NonNullList<ItemStack>) playerCompanionEntity.getHandSlots());
+      // Get current armor and hand items from entity to be in sync, without marking as changed.
+      this.armorItems = (NonNullList<ItemStack>) playerCompanionEntity.getArmorSlots();
+      this.handItems = (NonNullList<ItemStack>) playerCompanionEntity.getHandSlots();
     } else {
       // Alternative: Use cached values instead.
       compoundTag.putString(ENTITY_ACTION_TYPE, this.entityActionType.name());
@@ -593,7 +1005,7 @@ public class PlayerCompanionData {
         + "("
         + this.ownerName
         + "), entity="
-        + this.entityType
+        + (this.isDataDecoded() ? this.entityType : NOT_DECODED)
         + ", experience="
         + this.entityExperience
         + ", level="
@@ -609,9 +1021,9 @@ public class PlayerCompanionData {
         + ", z="
         + this.blockPos.getZ()
         + ", armor="
-        + this.getArmorItems()
+        + (this.isDataDecoded() ? this.armorItems : NOT_DECODED)
         + ", hand="
-        + this.getHandItems()
+        + (this.isDataDecoded() ? this.handItems : NOT_DECODED)
         + ", dimension="
         + this.entityDimension
         + ", action_type = "
@@ -627,10 +1039,16 @@ public class PlayerCompanionData {
         + "]";
   }
 
-  private void setDirty() {
+  public int getVersion() {
+    return this.version;
+  }
+
+  public void setDirty() {
+    this.dirty = true;
+    this.version++;
     PlayerCompanionsServerData serverData = PlayerCompanionsServerData.get();
     if (serverData != null) {
-      serverData.setDirty();
+      serverData.setCompanionDirty(this);
     }
   }
 
@@ -20,10 +20,14 @@
 package de.markusbordihn.playercompanions.data;
 
 import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.config.CommonConfig;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
+import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -52,30 +56,41 @@ import org.apache.logging.log4j.Logger;
 public class PlayerCompanionManager {
 
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  protected static final CommonConfig.Config COMMON = CommonConfig.COMMON;
+
+  // Reasons for queued updates, which are combined for the same companion.
+  public static final int UPDATE_JOIN = 1;
+  public static final int UPDATE_POSITION = 1 << 1;
+  public static final int UPDATE_HEALTH = 1 << 2;
+
   private static final short SYNC_TICK = 25;
-  private static final Set<Entity> entitySet = ConcurrentHashMap.newKeySet();
-  private static short ticks = 0;
+  private static final Map<UUID, QueuedCompanionUpdate> updateQueue = new LinkedHashMap<>();
+  private static long ticks = 0;
+  private static int lastDeferredUpdates = 0;
 
   protected PlayerCompanionManager() {}
 
   @SubscribeEvent
   public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
     log.info("{} Player Companion Data Manager ...", Constants.LOG_REGISTER_PREFIX);
+    updateQueue.clear();
+    ticks = 0;
+    lastDeferredUpdates = 0;
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
   public static void handleEntityJoinLevelEvent(EntityJoinLevelEvent event) {
-    updateOrRegisterCompanion(event.getEntity());
+    scheduleCompanionDataUpdate(event.getEntity(), UPDATE_JOIN, 0);
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
   public static void handleEntityTeleportEvent(EntityTeleportEvent event) {
-    updateOrRegisterCompanion(event.getEntity());
+    scheduleCompanionDataUpdate(event.getEntity(), UPDATE_POSITION, 0);
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
   public static void handleEntityTravelToDimensionEvent(EntityTravelToDimensionEvent event) {
-    updateOrRegisterCompanion(event.getEntity());
+    scheduleCompanionDataUpdate(event.getEntity(), UPDATE_POSITION, 0);
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
@@ -89,17 +104,17 @@ public class PlayerCompanionManager {
 
   @SubscribeEvent(priority = EventPriority.LOW)
   public static void handleLivingDamageEvent(LivingDamageEvent event) {
-    scheduleCompanionDataUpdate(event.getEntity());
+    scheduleCompanionDataUpdate(event.getEntity(), UPDATE_HEALTH, SYNC_TICK);
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
   public static void handleLivingHurtEvent(LivingHurtEvent event) {
-    scheduleCompanionDataUpdate(event.getEntity());
+    scheduleCompanionDataUpdate(event.getEntity(), UPDATE_HEALTH, SYNC_TICK);
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
   public static void handleLivingHealEvent(LivingHealEvent event) {
-    scheduleCompanionDataUpdate(event.getEntity());
+    scheduleCompanionDataUpdate(event.getEntity(), UPDATE_HEALTH, SYNC_TICK);
   }
 
   @SubscribeEvent(priority = EventPriority.LOW)
@@ -112,9 +127,10 @@ public class PlayerCompanionManager {
 
   @SubscribeEvent
   public static void handleClientServerTickEvent(TickEvent.ServerTickEvent event) {
-    if (event.phase == TickEvent.Phase.END && ticks++ >= SYNC_TICK) {
+    if (event.phase == TickEvent.Phase.END) {
+      ticks++;
       syncCompanionData();
-      ticks = 0;
+      PlayerCompanionsServerDataClientSync.syncPendingPlayerCompanionData();
     }
   }
 
@@ -126,28 +142,81 @@ public class PlayerCompanionManager {
 
   @SubscribeEvent
   public static void handlePlayerLoggedInEvent(PlayerEvent.PlayerLoggedInEvent event) {
+    loadPlayerCompanionsDataForPlayer(event.getEntity());
     syncPlayerCompanionsDataToPlayer(event.getEntity());
   }
 
-  private static void scheduleCompanionDataUpdate(Entity entity) {
+  public static int getQueuedUpdates() {
+    return updateQueue.size();
+  }
+
+  public static int getLastDeferredUpdates() {
+    return lastDeferredUpdates;
+  }
+
+  private static void scheduleCompanionDataUpdate(Entity entity, int reason, int delay) {
     if (entity instanceof PlayerCompanionEntity playerCompanionEntity
+        && !playerCompanionEntity.level().isClientSide
         && playerCompanionEntity.hasOwner()) {
-      entitySet.add(entity);
+      // Combine multiple updates for the same companion into a single update.
+      QueuedCompanionUpdate queuedUpdate = updateQueue.get(entity.getUUID());
+      if (queuedUpdate == null) {
+        updateQueue.put(
+            entity.getUUID(),
+            new QueuedCompanionUpdate(playerCompanionEntity, reason, ticks + delay));
+      } else {
+        queuedUpdate.entity = playerCompanionEntity;
+        queuedUpdate.reasons |= reason;
+        queuedUpdate.dueTick = Math.min(queuedUpdate.dueTick, ticks + delay);
+      }
     }
   }
 
   private static void syncCompanionData() {
-    if (entitySet.isEmpty()) {
+    if (updateQueue.isEmpty()) {
       return;
     }
-    log.debug("Sync data for {} companions with: {}", entitySet.size(), entitySet);
-    Iterator<Entity> entityIterator = entitySet.iterator();
-    while (entityIterator.hasNext()) {
-      Entity entity = entityIterator.next();
-      if (entity != null) {
-        updateOrRegisterCompanion(entity);
+
+    // Process due updates within the configured budget and defer the remaining updates.
+    int maxEntries = COMMON.dataUpdateMaxEntriesPerTick.get();
+    long maxTime = COMMON.dataUpdateMaxTimePerTick.get() * 1000000L;
+    long startTime = System.nanoTime();
+    int processedUpdates = 0;
+    int deferredUpdates = 0;
+    Iterator<QueuedCompanionUpdate> updateIterator = updateQueue.values().iterator();
+    while (updateIterator.hasNext()) {
+      QueuedCompanionUpdate queuedUpdate = updateIterator.next();
+      if (queuedUpdate.dueTick > ticks) {
+        continue;
+      }
+      if ((maxEntries > 0 && processedUpdates >= maxEntries)
+          || (maxTime > 0 && System.nanoTime() - startTime >= maxTime)) {
+        deferredUpdates++;
+        continue;
       }
-      entityIterator.remove();
+      log.debug(
+          "Sync data for companion {} with reasons {}", queuedUpdate.entity, queuedUpdate.reasons);
+      if ((queuedUpdate.reasons & UPDATE_JOIN) != 0) {
+        updateOrRegisterCompanion(queuedUpdate.entity);
+      } else {
+        updateCompanionFields(queuedUpdate.entity, queuedUpdate.reasons);
+      }
+      updateIterator.remove();
+      processedUpdates++;
+    }
+    if (deferredUpdates > 0) {
+      log.debug(
+          "Processed {} and deferred {} of {} queued companion updates",
+          processedUpdates,
+          deferredUpdates,
+          updateQueue.size());
+    }
+    lastDeferredUpdates = deferredUpdates;
+  }
+
+  private static void loadPlayerCompanionsDataForPlayer(Player player) {
+    if (player instanceof ServerPlayer serverPlayer) {
+      PlayerCompanionsServerData.get().loadCompanions(serverPlayer.getUUID());
     }
   }
 
@@ -168,6 +237,29 @@ public class PlayerCompanionManager {
     }
   }
 
+  private static void updateCompanionFields(PlayerCompanionEntity entity, int reasons) {
+    PlayerCompanionsServerData data = PlayerCompanionsServerData.get();
+    if (data.getCompanion(entity) == null) {
+      updateOrRegisterCompanion(entity);
+      return;
+    }
+    if (!entity.hasOwner()
+        || (!entity.canRespawnOnDeath() && entity.getRemovalReason() == RemovalReason.KILLED)) {
+      return;
+    }
+
+    // Only refresh the fields which could be changed by the queued events.
+    Set<PlayerCompanionDataField> fields = EnumSet.noneOf(PlayerCompanionDataField.class);
+    if ((reasons & UPDATE_POSITION) != 0) {
+      fields.add(PlayerCompanionDataField.POSITION);
+    }
+    if ((reasons & UPDATE_HEALTH) != 0) {
+      fields.add(PlayerCompanionDataField.HEALTH);
+    }
+    log.debug("Update Companion {} fields {}", entity, fields);
+    data.updatePlayerCompanion(entity, fields);
+  }
+
   private static void updateCompanionData(Entity entity) {
     if (entity instanceof PlayerCompanionEntity playerCompanionEntity
         && !playerCompanionEntity.level().isClientSide
@@ -175,6 +267,7 @@ public class PlayerCompanionManager {
         && (playerCompanionEntity.canRespawnOnDeath()
             || playerCompanionEntity.getRemovalReason() != RemovalReason.KILLED)) {
       log.debug("Update Companion Data {}", entity);
+      updateQueue.remove(entity.getUUID());
       PlayerCompanionsServerData.get().updatePlayerCompanionData(playerCompanionEntity);
     }
   }
@@ -213,4 +306,16 @@ public class PlayerCompanionManager {
       }
     }
   }
+
+  private static class QueuedCompanionUpdate {
+    private PlayerCompanionEntity entity;
+    private int reasons;
+    private long dueTick;
+
+    QueuedCompanionUpdate(PlayerCompanionEntity entity, int reasons, long dueTick) {
+      this.entity = entity;
+      this.reasons = reasons;
+      this.dueTick = dueTick;
+    }
+  }
 }
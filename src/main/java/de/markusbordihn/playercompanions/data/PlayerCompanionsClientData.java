@@ -24,6 +24,7 @@ import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
 import de.markusbordihn.playercompanions.item.CapturedCompanion;
+import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionsDataUpdate;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -31,6 +32,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.TagParser;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.item.ItemStack;
 import org.apache.logging.log4j.LogManager;
@@ -47,8 +49,8 @@ public class PlayerCompanionsClientData {
 
   public static PlayerCompanionData getCompanion(ItemStack itemStack) {
     UUID companionUUID = null;
-    CompoundTag compoundTag = itemStack.getOrCreateTag();
-    if (compoundTag.hasUUID(CapturedCompanion.COMPANION_UUID_TAG)) {
+    CompoundTag compoundTag = itemStack.getTag();
+    if (compoundTag != null && compoundTag.hasUUID(CapturedCompanion.COMPANION_UUID_TAG)) {
       companionUUID = compoundTag.getUUID(CapturedCompanion.COMPANION_UUID_TAG);
     }
     if (companionUUID != null) {
@@ -129,6 +131,37 @@ public class PlayerCompanionsClientData {
     }
   }
 
+  public static void load(byte version, int entries, FriendlyByteBuf buffer) {
+    if (version != MessagePlayerCompanionsDataUpdate.VERSION) {
+      log.error("Unsupported Player Companion data update version {}!", version);
+      return;
+    }
+    for (int i = 0; i < entries; i++) {
+      byte entryType = buffer.readByte();
+      UUID companionUUID = buffer.readUUID();
+      FriendlyByteBuf entryBuffer = new FriendlyByteBuf(buffer.readBytes(buffer.readVarInt()));
+      if (entryType == MessagePlayerCompanionsDataUpdate.FULL_ENTRY) {
+        loadPlayerCompanionData(entryBuffer.readNbt());
+      } else if (entryType == MessagePlayerCompanionsDataUpdate.DELTA_ENTRY) {
+        PlayerCompanionData playerCompanionData = playerCompanionsMap.get(companionUUID);
+        if (playerCompanionData != null) {
+          log.debug("Update client player companion data for {} with delta", companionUUID);
+          try {
+            playerCompanionData.readDelta(entryBuffer);
+          } catch (IndexOutOfBoundsException exception) {
+            // Entries are length prefixed, so a broken entry does not affect the next entries.
+            log.error("Unable to read data delta for Player Companion {}!", companionUUID);
+          }
+        } else {
+          log.warn("Unable to apply data delta for unknown Player Companion {}!", companionUUID);
+        }
+      } else {
+        log.error("Unknown Player Companion data update {} for {}!", entryType, companionUUID);
+      }
+      entryBuffer.release();
+    }
+  }
+
   public static void loadPlayerCompanionData(PlayerCompanionData playerCompanion) {
     if (playerCompanion != null) {
       playerCompanionsMap.put(playerCompanion.getUUID(), playerCompanion);
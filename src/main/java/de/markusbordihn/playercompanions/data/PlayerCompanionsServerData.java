@@ -22,14 +22,22 @@ package de.markusbordihn.playercompanions.data;
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.config.CommonConfig;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
+import de.markusbordihn.playercompanions.entity.type.PlayerCompanionType;
 import de.markusbordihn.playercompanions.item.CapturedCompanion;
+import de.markusbordihn.playercompanions.metrics.MetricCounter;
+import de.markusbordihn.playercompanions.metrics.MetricTimer;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -38,6 +46,7 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.saveddata.SavedData;
 import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.server.ServerLifecycleHooks;
@@ -56,9 +65,23 @@ public class PlayerCompanionsServerData extends SavedData {
       new ConcurrentHashMap<>();
   private static ConcurrentHashMap<UUID, Set<PlayerCompanionData>> companionsPerPlayerMap =
       new ConcurrentHashMap<>();
+  private static Set<UUID> loadedOwners = ConcurrentHashMap.newKeySet();
+  private static Set<UUID> dirtyOwners = ConcurrentHashMap.newKeySet();
+  private static Set<UUID> mergedOwners = ConcurrentHashMap.newKeySet();
   private static MinecraftServer server;
   private static PlayerCompanionsServerData data;
   private static long nextBackupTime = 0;
+  private static int lastSaveRewrittenEntries = 0;
+  private static int lastSaveReusedEntries = 0;
+  // Metrics
+  private static final MetricTimer loadTimer = MetricsRegistry.getTimer("data.load");
+  private static final MetricTimer saveTimer = MetricsRegistry.getTimer("data.save");
+  private static final MetricCounter loadEntriesCounter =
+      MetricsRegistry.getCounter("data.load.entries");
+  private static final MetricCounter saveRewrittenCounter =
+      MetricsRegistry.getCounter("data.save.rewritten");
+  private static final MetricCounter saveReusedCounter =
+      MetricsRegistry.getCounter("data.save.reused");
 
   public PlayerCompanionsServerData() {
     this.setDirty();
@@ -68,6 +91,11 @@ public class PlayerCompanionsServerData extends SavedData {
   public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
     playerCompanionsMap = new ConcurrentHashMap<>();
     companionsPerPlayerMap = new ConcurrentHashMap<>();
+    loadedOwners = ConcurrentHashMap.newKeySet();
+    dirtyOwners = ConcurrentHashMap.newKeySet();
+    mergedOwners = ConcurrentHashMap.newKeySet();
+    PlayerCompanionsServerDataIndex.clear();
+    PlayerCompanionsServerDataBackup.reset();
 
     if (Boolean.TRUE.equals(COMMON.dataBackupEnabled.get())) {
       nextBackupTime =
@@ -82,6 +110,13 @@ public class PlayerCompanionsServerData extends SavedData {
     }
   }
 
+  @SubscribeEvent
+  public static void handleServerStoppedEvent(ServerStoppedEvent event) {
+    if (Boolean.TRUE.equals(COMMON.dataBackupEnabled.get())) {
+      PlayerCompanionsServerDataBackup.waitForPendingBackup();
+    }
+  }
+
   public static void prepare(MinecraftServer server) {
     // Make sure we preparing the data only once for the same server!
     if (server == null
@@ -101,6 +136,41 @@ public class PlayerCompanionsServerData extends SavedData {
                 PlayerCompanionsServerData::load,
                 PlayerCompanionsServerData::new,
                 PlayerCompanionsServerData.getFileId());
+
+    // Merge per owner storage files, if the per owner storage was disabled in the meantime.
+    if (!isPerOwnerStorage()) {
+      mergeOwnerStorage(server);
+    } else {
+      log.info(
+          "{} using per owner storage at {}",
+          Constants.LOG_ICON_NAME,
+          PlayerCompanionsServerDataOwnerStorage.getStorageFolder(server));
+    }
+  }
+
+  public static boolean isPerOwnerStorage() {
+    return Boolean.TRUE.equals(COMMON.dataStoragePerOwner.get());
+  }
+
+  private static void mergeOwnerStorage(MinecraftServer server) {
+    for (UUID ownerUUID : PlayerCompanionsServerDataOwnerStorage.listOwners(server)) {
+      // Owners which are already part of the main data file are more recent.
+      if (!companionsPerPlayerMap.containsKey(ownerUUID)) {
+        log.info(
+            "{} merging per owner storage for {} into main data file ...",
+            Constants.LOG_ICON_NAME,
+            ownerUUID);
+        ListTag companionListTag =
+            PlayerCompanionsServerDataOwnerStorage.loadOwner(server, ownerUUID);
+        for (int i = 0; i < companionListTag.size(); ++i) {
+          addPlayerCompanion(companionListTag.getCompound(i));
+        }
+      }
+      mergedOwners.add(ownerUUID);
+    }
+    if (!mergedOwners.isEmpty() && PlayerCompanionsServerData.data != null) {
+      PlayerCompanionsServerData.data.setDirty();
+    }
   }
 
   public static void setData(PlayerCompanionsServerData data) {
@@ -124,8 +194,17 @@ public class PlayerCompanionsServerData extends SavedData {
     return PLAYER_COMPANIONS_FILE_ID;
   }
 
+  public static int getLastSaveRewrittenEntries() {
+    return lastSaveRewrittenEntries;
+  }
+
+  public static int getLastSaveReusedEntries() {
+    return lastSaveReusedEntries;
+  }
+
   private static void addPlayerCompanion(PlayerCompanionData playerCompanion) {
     playerCompanionsMap.put(playerCompanion.getUUID(), playerCompanion);
+    PlayerCompanionsServerDataIndex.add(playerCompanion);
     UUID ownerUUID = playerCompanion.getOwnerUUID();
     if (ownerUUID != null) {
       Set<PlayerCompanionData> playerCompanions =
@@ -142,25 +221,42 @@ public class PlayerCompanionsServerData extends SavedData {
   }
 
   public static PlayerCompanionsServerData load(CompoundTag compoundTag) {
-    // Create a backup before we loading anything!
-    if (Boolean.TRUE.equals(COMMON.dataBackupEnabled.get())) {
-      PlayerCompanionsServerDataBackup.saveBackup(compoundTag);
-      if (COMMON.dataBackupInterval.get() > 0) {
-        updateBackupTime(
-            java.time.Instant.now().getEpochSecond() + (60L * COMMON.dataBackupInterval.get()));
-      }
-    }
-
     // Create a new data instance and set last update field.
     PlayerCompanionsServerData playerCompanionsData = new PlayerCompanionsServerData();
     log.info("{} loading data ...", Constants.LOG_ICON_NAME);
 
     // Restoring companions data
+    long startTime = System.nanoTime();
     if (compoundTag.contains(COMPANIONS_TAG)) {
       ListTag companionListTag = compoundTag.getList(COMPANIONS_TAG, 10);
       for (int i = 0; i < companionListTag.size(); ++i) {
         addPlayerCompanion(companionListTag.getCompound(i));
       }
+      loadEntriesCounter.add(companionListTag.size());
+    }
+    loadTimer.record(System.nanoTime() - startTime);
+
+    // Owned companions inside the main data file are moved to the per owner storage and merged
+    // with the already stored companions of their owners.
+    boolean perOwnerStorage = isPerOwnerStorage() && server != null;
+    if (perOwnerStorage) {
+      for (UUID ownerUUID : new ArrayList<>(companionsPerPlayerMap.keySet())) {
+        playerCompanionsData.loadCompanions(ownerUUID);
+        dirtyOwners.add(ownerUUID);
+      }
+    }
+
+    // Create a backup of the full data set, before anything is changed.
+    if (Boolean.TRUE.equals(COMMON.dataBackupEnabled.get())) {
+      if (perOwnerStorage) {
+        playerCompanionsData.saveBackup();
+      } else {
+        PlayerCompanionsServerDataBackup.saveBackup(compoundTag);
+      }
+      if (COMMON.dataBackupInterval.get() > 0) {
+        updateBackupTime(
+            java.time.Instant.now().getEpochSecond() + (60L * COMMON.dataBackupInterval.get()));
+      }
     }
 
     return playerCompanionsData;
@@ -216,9 +312,53 @@ public class PlayerCompanionsServerData extends SavedData {
   }
 
   public Set<PlayerCompanionData> getCompanions(UUID ownerUUID) {
+    loadCompanions(ownerUUID);
     return companionsPerPlayerMap.get(ownerUUID);
   }
 
+  public Set<PlayerCompanionData> getCompanions(ResourceKey<Level> level) {
+    return PlayerCompanionsServerDataIndex.getCompanions(level);
+  }
+
+  public Set<PlayerCompanionData> getCompanions(PlayerCompanionType type) {
+    return PlayerCompanionsServerDataIndex.getCompanions(type);
+  }
+
+  public Set<PlayerCompanionData> getLoadedCompanions() {
+    return PlayerCompanionsServerDataIndex.getLoadedCompanions();
+  }
+
+  public void loadCompanions(UUID ownerUUID) {
+    if (ownerUUID == null
+        || server == null
+        || !isPerOwnerStorage()
+        || loadedOwners.contains(ownerUUID)) {
+      return;
+    }
+    loadedOwners.add(ownerUUID);
+    ListTag companionListTag = PlayerCompanionsServerDataOwnerStorage.loadOwner(server, ownerUUID);
+    for (int i = 0; i < companionListTag.size(); ++i) {
+      CompoundTag companionCompoundTag = companionListTag.getCompound(i);
+      // Already registered companions are more recent than the stored data.
+      if (!playerCompanionsMap.containsKey(
+          companionCompoundTag.getUUID(PlayerCompanionData.UUID_TAG))) {
+        addPlayerCompanion(companionCompoundTag);
+      }
+    }
+    log.debug(
+        "{} loaded {} companions for owner {}",
+        Constants.LOG_ICON_NAME,
+        companionListTag.size(),
+        ownerUUID);
+  }
+
+  public void setCompanionDirty(PlayerCompanionData playerCompanion) {
+    if (playerCompanion != null && playerCompanion.getOwnerUUID() != null) {
+      dirtyOwners.add(playerCompanion.getOwnerUUID());
+    }
+    this.setDirty();
+  }
+
   public int getNumberOfCompanions(ServerPlayer serverPlayer) {
     return getNumberOfCompanions(serverPlayer.getUUID());
   }
@@ -253,6 +393,7 @@ public class PlayerCompanionsServerData extends SavedData {
   }
 
   public void updateOrRegisterCompanion(PlayerCompanionEntity companionEntity) {
+    loadCompanions(companionEntity.getOwnerUUID());
     if (playerCompanionsMap.get(companionEntity.getUUID()) == null) {
       registerCompanion(companionEntity);
     } else {
@@ -261,6 +402,23 @@ public class PlayerCompanionsServerData extends SavedData {
   }
 
   public PlayerCompanionData updatePlayerCompanion(PlayerCompanionEntity companionEntity) {
+    return updatePlayerCompanion(companionEntity, false);
+  }
+
+  public PlayerCompanionData updatePlayerCompanion(
+      PlayerCompanionEntity companionEntity, boolean includeEntityData) {
+    return updatePlayerCompanion(companionEntity, includeEntityData, null);
+  }
+
+  public PlayerCompanionData updatePlayerCompanion(
+      PlayerCompanionEntity companionEntity, Set<PlayerCompanionDataField> fields) {
+    return updatePlayerCompanion(companionEntity, false, fields);
+  }
+
+  private PlayerCompanionData updatePlayerCompanion(
+      PlayerCompanionEntity companionEntity,
+      boolean includeEntityData,
+      Set<PlayerCompanionDataField> fields) {
     PlayerCompanionData playerCompanion = playerCompanionsMap.get(companionEntity.getUUID());
     if (playerCompanion == null) {
       log.error(
@@ -270,7 +428,16 @@ public class PlayerCompanionsServerData extends SavedData {
     }
 
     // Update the existing data with current data.
-    playerCompanion.load(companionEntity);
+    UUID formerOwnerUUID = playerCompanion.getOwnerUUID();
+    if (fields != null) {
+      playerCompanion.load(companionEntity, fields);
+    } else {
+      playerCompanion.load(companionEntity, includeEntityData);
+    }
+    PlayerCompanionsServerDataIndex.update(playerCompanion, !companionEntity.isRemoved());
+    if (formerOwnerUUID != null && !formerOwnerUUID.equals(playerCompanion.getOwnerUUID())) {
+      dirtyOwners.add(formerOwnerUUID);
+    }
 
     // Update Companions per Player Map for faster and easier access.
     UUID ownerUUID = playerCompanion.getOwnerUUID();
@@ -283,18 +450,23 @@ public class PlayerCompanionsServerData extends SavedData {
       playerCompanions.add(playerCompanion);
     }
 
-    // Store data to disk.
-    this.setDirty();
+    // Store data to disk, if anything has changed.
+    if (playerCompanion.isDirty()) {
+      this.setCompanionDirty(playerCompanion);
+    }
 
-    // Sync data (server -> client-side) with player companion owner, if any.
-    syncPlayerCompanionData(playerCompanion);
+    // Sync data (server -> client-side) with player companion owner, if anything has changed.
+    if (playerCompanion.hasChangedFields()) {
+      syncPlayerCompanionData(playerCompanion);
+    }
 
     return playerCompanion;
   }
 
   public void updatePlayerCompanionData(PlayerCompanionEntity companionEntity) {
+    // Entity is about to leave the level, so make sure to store the full entity data.
     if (companionEntity.getId() > 1) {
-      updatePlayerCompanion(companionEntity);
+      updatePlayerCompanion(companionEntity, true);
     }
   }
 
@@ -304,6 +476,7 @@ public class PlayerCompanionsServerData extends SavedData {
 
   public PlayerCompanionData registerCompanion(
       PlayerCompanionEntity companionEntity, boolean requiredOwner) {
+    loadCompanions(companionEntity.getOwnerUUID());
     if (playerCompanionsMap.get(companionEntity.getUUID()) != null) {
       log.warn("Companion {} is already registered!", companionEntity);
       return playerCompanionsMap.get(companionEntity.getUUID());
@@ -318,7 +491,8 @@ public class PlayerCompanionsServerData extends SavedData {
     }
     PlayerCompanionData playerCompanion = new PlayerCompanionData(companionEntity);
     addPlayerCompanion(playerCompanion);
-    this.setDirty();
+    PlayerCompanionsServerDataIndex.update(playerCompanion, !companionEntity.isRemoved());
+    this.setCompanionDirty(playerCompanion);
 
     // Sync data (server -> client-side) with player companion owner, if any.
     if (playerCompanion.hasOwner()) {
@@ -331,6 +505,7 @@ public class PlayerCompanionsServerData extends SavedData {
   public void unregisterCompanion(PlayerCompanionEntity companionEntity) {
     PlayerCompanionData playerCompanion = playerCompanionsMap.remove(companionEntity.getUUID());
     if (playerCompanion != null) {
+      PlayerCompanionsServerDataIndex.remove(playerCompanion);
       log.info("Unregister Player Companion {} ...", playerCompanion.getUUID());
       UUID ownerUUID = playerCompanion.getOwnerUUID();
       if (ownerUUID != null) {
@@ -346,7 +521,7 @@ public class PlayerCompanionsServerData extends SavedData {
         // Sync data (server -> client-side) with player companion owner.
         syncPlayerCompanionsData(ownerUUID);
       }
-      this.setDirty();
+      this.setCompanionDirty(playerCompanion);
     }
   }
 
@@ -362,20 +537,108 @@ public class PlayerCompanionsServerData extends SavedData {
     PlayerCompanionsServerDataClientSync.syncPlayerCompanionData(playerCompanionData);
   }
 
-  @Override
-  public CompoundTag save(CompoundTag compoundTag) {
-    log.info("{} saving data ... {}", Constants.LOG_ICON_NAME, this);
+  /**
+   * Creates a backup of the full data set. The owner files of not loaded owners are read by the
+   * backup writer, to avoid file I/O on the server thread.
+   */
+  public CompletableFuture<Boolean> saveBackup() {
+    CompoundTag compoundTag = new CompoundTag();
+    compoundTag.put(COMPANIONS_TAG, saveCompanions(true));
+    compoundTag.put(NPC_TAG, new ListTag());
+    return isPerOwnerStorage() && server != null
+        ? PlayerCompanionsServerDataBackup.saveBackup(
+            compoundTag, server, Set.copyOf(loadedOwners))
+        : PlayerCompanionsServerDataBackup.saveBackup(compoundTag);
+  }
 
+  private ListTag saveCompanions(boolean includeOwnedCompanions) {
     // Iterate throw all companions and store their full data (meta + entity data).
+    // Only changed companions are re-serialized, all others are reusing their cached data.
     ListTag companionListTag = new ListTag();
     for (PlayerCompanionData playerCompanion : playerCompanionsMap.values()) {
-      if (playerCompanion != null) {
-        CompoundTag playerCompanionCompoundTag = new CompoundTag();
-        playerCompanion.save(playerCompanionCompoundTag);
-        companionListTag.add(playerCompanionCompoundTag);
+      if (playerCompanion != null && (includeOwnedCompanions || !playerCompanion.hasOwner())) {
+        companionListTag.add(playerCompanion.saveIfDirty());
       }
     }
-    compoundTag.put(COMPANIONS_TAG, companionListTag);
+    return companionListTag;
+  }
+
+  private static void updateSaveStatistics(boolean perOwnerStorage) {
+    // Count the companions which are written with this save, including the owner files.
+    int rewrittenEntries = 0;
+    int reusedEntries = 0;
+    for (PlayerCompanionData playerCompanion : playerCompanionsMap.values()) {
+      if (playerCompanion != null
+          && (!perOwnerStorage
+              || !playerCompanion.hasOwner()
+              || dirtyOwners.contains(playerCompanion.getOwnerUUID()))) {
+        if (playerCompanion.isDirty()) {
+          rewrittenEntries++;
+        } else {
+          reusedEntries++;
+        }
+      }
+    }
+    lastSaveRewrittenEntries = rewrittenEntries;
+    lastSaveReusedEntries = reusedEntries;
+    saveRewrittenCounter.add(rewrittenEntries);
+    saveReusedCounter.add(reusedEntries);
+    log.debug(
+        "{} saving {} companions ({} rewritten, {} reused)",
+        Constants.LOG_ICON_NAME,
+        rewrittenEntries + reusedEntries,
+        rewrittenEntries,
+        reusedEntries);
+  }
+
+  private void saveOwnerStorage() {
+    int savedOwners = 0;
+    Iterator<UUID> ownerIterator = dirtyOwners.iterator();
+    Set<UUID> failedOwners = new HashSet<>();
+    while (ownerIterator.hasNext()) {
+      UUID ownerUUID = ownerIterator.next();
+      ownerIterator.remove();
+      if (PlayerCompanionsServerDataOwnerStorage.saveOwner(
+          server, ownerUUID, companionsPerPlayerMap.get(ownerUUID))) {
+        savedOwners++;
+      } else {
+        failedOwners.add(ownerUUID);
+      }
+    }
+
+    // Try again with the next save.
+    if (!failedOwners.isEmpty()) {
+      dirtyOwners.addAll(failedOwners);
+      this.setDirty();
+    }
+    if (savedOwners > 0) {
+      log.debug("{} saved companions of {} owners", Constants.LOG_ICON_NAME, savedOwners);
+    }
+  }
+
+  private void removeMergedOwnerStorage() {
+    // Merged owner files are part of the main data file now.
+    for (UUID ownerUUID : mergedOwners) {
+      PlayerCompanionsServerDataOwnerStorage.deleteOwner(server, ownerUUID);
+    }
+    mergedOwners.clear();
+  }
+
+  @Override
+  public CompoundTag save(CompoundTag compoundTag) {
+    log.info("{} saving data ... {}", Constants.LOG_ICON_NAME, this);
+
+    // Owned companions are stored in their owner files, if per owner storage is enabled.
+    long startTime = System.nanoTime();
+    boolean perOwnerStorage = isPerOwnerStorage() && server != null;
+    updateSaveStatistics(perOwnerStorage);
+    compoundTag.put(COMPANIONS_TAG, saveCompanions(!perOwnerStorage));
+    if (perOwnerStorage) {
+      saveOwnerStorage();
+    } else if (!mergedOwners.isEmpty()) {
+      removeMergedOwnerStorage();
+    }
+    saveTimer.record(System.nanoTime() - startTime);
 
     // Iterate all NPC.
     ListTag npcListTag = new ListTag();
@@ -385,7 +648,11 @@ public class PlayerCompanionsServerData extends SavedData {
     if (Boolean.TRUE.equals(COMMON.dataBackupEnabled.get())
         && nextBackupTime > 0
         && java.time.Instant.now().getEpochSecond() >= nextBackupTime) {
-      PlayerCompanionsServerDataBackup.saveBackup(compoundTag);
+      if (perOwnerStorage) {
+        saveBackup();
+      } else {
+        PlayerCompanionsServerDataBackup.saveBackup(compoundTag);
+      }
       updateBackupTime(
           java.time.Instant.now().getEpochSecond() + (60L * COMMON.dataBackupInterval.get()));
     }
@@ -20,19 +20,48 @@
 package de.markusbordihn.playercompanions.data;
 
 import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.config.CommonConfig;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.storage.LevelResource;
 import net.minecraftforge.server.ServerLifecycleHooks;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Backups are stored as chains of a full backup followed by delta backups, which only include the
+ * companions changed since the previous backup of the chain.
+ */
 public class PlayerCompanionsServerDataBackup {
 
   public static final File BACKUP_FOLDER =
@@ -40,46 +69,262 @@ public class PlayerCompanionsServerDataBackup {
           ServerLifecycleHooks.getCurrentServer().getWorldPath(LevelResource.ROOT).toFile(),
           Constants.MOD_ID);
   public static final String BACKUP_FILE_NAME = "player_companions_data.nbt";
+  public static final String DELTA_BACKUP_FILE_NAME = "player_companions_delta.nbt";
+  public static final String BASE_TAG = "Base";
+  public static final String REMOVED_TAG = "Removed";
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
-  private static CompoundTag lastBackupCompoundTag = null;
+  protected static final CommonConfig.Config COMMON = CommonConfig.COMMON;
+  private static final int BACKUP_SHUTDOWN_TIMEOUT = 30;
+  private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+  // Compression, file I/O and rotation are handled by a single background writer.
+  private static final ExecutorService backupExecutor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, Constants.LOG_NAME + " Backup Writer");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static CompletableFuture<Boolean> lastBackupFuture =
+      CompletableFuture.completedFuture(false);
+
+  // Backup chain state, only accessed by the background writer.
+  private static Map<UUID, byte[]> lastBackupCompanionDigests = new HashMap<>();
+  private static String lastBaseBackupFileName = null;
+  private static int numberOfDeltaBackups = 0;
 
   protected PlayerCompanionsServerDataBackup() {}
 
-  public static boolean saveBackup() {
-    CompoundTag compoundTag = new CompoundTag();
-    PlayerCompanionsServerData.get().save(compoundTag);
-    return saveBackup(compoundTag);
+  /**
+   * Starts a new backup chain with the next backup, e.g. after a world was (re)opened. The chain
+   * state is reset by the backup writer, so that pending backups are finished first.
+   */
+  public static void reset() {
+    backupExecutor.execute(
+        () -> {
+          lastBackupCompanionDigests = new HashMap<>();
+          lastBaseBackupFileName = null;
+          numberOfDeltaBackups = 0;
+        });
   }
 
-  public static boolean saveBackup(CompoundTag compoundTag) {
-    if (compoundTag.equals(lastBackupCompoundTag)) {
-      log.warn("{} skipping Backup, because data are already saved!", Constants.LOG_ICON_NAME);
-      return false;
+  public static void waitForPendingBackup() {
+    // Make sure that pending backups are written before the server is gone.
+    try {
+      lastBackupFuture.get(BACKUP_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException exception) {
+      log.error("{} failed to finish pending backup: {}", Constants.LOG_ICON_NAME, exception);
     }
-    if (compoundTag.isEmpty() || compoundTag.size() == 0) {
+  }
+
+  public static CompletableFuture<Boolean> saveBackup() {
+    return PlayerCompanionsServerData.get().saveBackup();
+  }
+
+  public static CompletableFuture<Boolean> saveBackup(CompoundTag compoundTag) {
+    return saveBackup(compoundTag, null, Set.of());
+  }
+
+  /**
+   * Creates a backup of the given data and, if a server is given, of the stored companions of all
+   * owners which are not part of the loaded owners. The owner files are read by the backup writer.
+   */
+  public static CompletableFuture<Boolean> saveBackup(
+      CompoundTag compoundTag, MinecraftServer server, Set<UUID> loadedOwners) {
+    if (compoundTag == null || compoundTag.isEmpty()) {
       log.warn("{} skipping Backup, because data are empty!", Constants.LOG_ICON_NAME);
+      return CompletableFuture.completedFuture(false);
+    }
+
+    // Take an immutable snapshot on the server thread and hand over everything else.
+    final CompoundTag snapshot = compoundTag.copy();
+    final Date backupDate = new Date();
+    lastBackupFuture =
+        CompletableFuture.supplyAsync(
+            () -> {
+              if (server != null) {
+                addOwnerStorage(snapshot, server, loadedOwners);
+              }
+              return writeBackup(snapshot, backupDate);
+            },
+            backupExecutor);
+    return lastBackupFuture;
+  }
+
+  private static void addOwnerStorage(
+      CompoundTag compoundTag, MinecraftServer server, Set<UUID> loadedOwners) {
+    ListTag companionListTag =
+        compoundTag.getList(PlayerCompanionsServerData.COMPANIONS_TAG, Tag.TAG_COMPOUND);
+    Set<UUID> companionUUIDs = new HashSet<>();
+    for (int i = 0; i < companionListTag.size(); ++i) {
+      companionUUIDs.add(companionListTag.getCompound(i).getUUID(PlayerCompanionData.UUID_TAG));
+    }
+
+    // Loaded companions are more recent than the stored data of their owner.
+    for (UUID ownerUUID : PlayerCompanionsServerDataOwnerStorage.listOwners(server)) {
+      if (loadedOwners.contains(ownerUUID)) {
+        continue;
+      }
+      ListTag ownerListTag = PlayerCompanionsServerDataOwnerStorage.loadOwner(server, ownerUUID);
+      for (int i = 0; i < ownerListTag.size(); ++i) {
+        CompoundTag companionCompoundTag = ownerListTag.getCompound(i);
+        if (companionUUIDs.add(companionCompoundTag.getUUID(PlayerCompanionData.UUID_TAG))) {
+          companionListTag.add(companionCompoundTag);
+        }
+      }
+    }
+    compoundTag.put(PlayerCompanionsServerData.COMPANIONS_TAG, companionListTag);
+  }
+
+  private static boolean writeBackup(CompoundTag compoundTag, Date backupDate) {
+    // Compare the companions with the previous backup to get the changed and removed companions.
+    Map<UUID, byte[]> companionDigests = new HashMap<>();
+    ListTag changedCompanionListTag = new ListTag();
+    ListTag removedCompanionListTag = new ListTag();
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      ListTag companionListTag =
+          compoundTag.getList(PlayerCompanionsServerData.COMPANIONS_TAG, Tag.TAG_COMPOUND);
+      for (int i = 0; i < companionListTag.size(); ++i) {
+        CompoundTag companionCompoundTag = companionListTag.getCompound(i);
+        UUID companionUUID = companionCompoundTag.getUUID(PlayerCompanionData.UUID_TAG);
+        byte[] companionDigest = messageDigest.digest(toByteArray(companionCompoundTag));
+        companionDigests.put(companionUUID, companionDigest);
+        if (!Arrays.equals(companionDigest, lastBackupCompanionDigests.get(companionUUID))) {
+          changedCompanionListTag.add(companionCompoundTag);
+        }
+      }
+    } catch (IOException | NoSuchAlgorithmException exception) {
+      log.error(
+          "{} failed to prepare backup with exception: {}", Constants.LOG_ICON_NAME, exception);
       return false;
     }
-    File file =
-        new File(
-            BACKUP_FOLDER.getAbsoluteFile(),
-            new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date())
-                + "-"
-                + BACKUP_FILE_NAME);
+    for (UUID companionUUID : lastBackupCompanionDigests.keySet()) {
+      if (!companionDigests.containsKey(companionUUID)) {
+        removedCompanionListTag.add(NbtUtils.createUUID(companionUUID));
+      }
+    }
+    if (lastBaseBackupFileName != null
+        && changedCompanionListTag.isEmpty()
+        && removedCompanionListTag.isEmpty()) {
+      log.warn("{} skipping Backup, because data are already saved!", Constants.LOG_ICON_NAME);
+      return false;
+    }
+
+    // Compact the backup chain into a new full backup, after the configured number of deltas.
+    int maxDeltaBackups = COMMON.dataBackupMaxDeltas.get();
+    boolean fullBackup = lastBaseBackupFileName == null || numberOfDeltaBackups >= maxDeltaBackups;
+    String backupDateName = new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(backupDate);
+    File file;
+    CompoundTag backupCompoundTag;
+    if (fullBackup) {
+      file = new File(BACKUP_FOLDER.getAbsoluteFile(), backupDateName + "-" + BACKUP_FILE_NAME);
+      backupCompoundTag = compoundTag;
+    } else {
+      file =
+          new File(BACKUP_FOLDER.getAbsoluteFile(), backupDateName + "-" + DELTA_BACKUP_FILE_NAME);
+      backupCompoundTag = new CompoundTag();
+      backupCompoundTag.putString(BASE_TAG, lastBaseBackupFileName);
+      backupCompoundTag.put(PlayerCompanionsServerData.COMPANIONS_TAG, changedCompanionListTag);
+      backupCompoundTag.put(REMOVED_TAG, removedCompanionListTag);
+    }
+
+    File tempFile = new File(file.getParentFile(), file.getName() + TEMP_FILE_EXTENSION);
     log.info("{} creating Backup {} ...", Constants.LOG_ICON_NAME, file.getName());
     try {
       if (!file.getParentFile().exists()) {
         log.info("{} creating backup folder at {}", Constants.LOG_ICON_NAME, file.getParentFile());
         file.getParentFile().mkdirs();
       }
-      NbtIo.writeCompressed(compoundTag, file);
-      log.info("{} saved backup at {}", Constants.LOG_ICON_NAME, file);
-      lastBackupCompoundTag = compoundTag;
-      return true;
+      NbtIo.writeCompressed(backupCompoundTag, tempFile);
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      log.info(
+          "{} saved {} backup at {} with {} changed and {} removed companions",
+          Constants.LOG_ICON_NAME,
+          fullBackup ? "full" : "delta",
+          file,
+          changedCompanionListTag.size(),
+          removedCompanionListTag.size());
     } catch (final IOException exception) {
       log.error("{} failed save backup with exception: {}", Constants.LOG_ICON_NAME, exception);
       return false;
     }
+
+    // Update backup chain.
+    lastBackupCompanionDigests = companionDigests;
+    if (fullBackup) {
+      lastBaseBackupFileName = file.getName();
+      numberOfDeltaBackups = 0;
+    } else {
+      numberOfDeltaBackups++;
+    }
+
+    // Remove old backups, if needed.
+    pruneBackups(COMMON.dataBackupMaxFiles.get());
+    return true;
+  }
+
+  private static byte[] toByteArray(CompoundTag compoundTag) throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    NbtIo.write(compoundTag, new DataOutputStream(byteArrayOutputStream));
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private static void pruneBackups(int maxBackups) {
+    if (maxBackups <= 0) {
+      return;
+    }
+    List<File> backupFiles = listBackup();
+    if (backupFiles.size() <= maxBackups) {
+      return;
+    }
+
+    // Group backups into chains, because delta backups are useless without their full backup.
+    List<List<File>> backupChains = new ArrayList<>();
+    for (File backupFile : backupFiles) {
+      if (backupChains.isEmpty() || !isDeltaBackup(backupFile.getName())) {
+        backupChains.add(new ArrayList<>());
+      }
+      backupChains.get(backupChains.size() - 1).add(backupFile);
+    }
+
+    // Remove the oldest chains, but always keep the latest chain.
+    int numberOfBackups = backupFiles.size();
+    for (List<File> backupChain : backupChains.subList(0, backupChains.size() - 1)) {
+      if (numberOfBackups <= maxBackups) {
+        break;
+      }
+      for (File backupFile : backupChain) {
+        try {
+          Files.deleteIfExists(backupFile.toPath());
+          log.info("{} removed old backup {}", Constants.LOG_ICON_NAME, backupFile.getName());
+        } catch (final IOException exception) {
+          log.error(
+              "{} failed to remove old backup {}: {}",
+              Constants.LOG_ICON_NAME,
+              backupFile,
+              exception);
+        }
+      }
+      numberOfBackups -= backupChain.size();
+    }
+  }
+
+  public static boolean isDeltaBackup(String fileName) {
+    return fileName != null && fileName.endsWith(DELTA_BACKUP_FILE_NAME);
+  }
+
+  public static String getBackupFileName(String backupName) {
+    // Full and delta backups are sharing the same date based name.
+    String fileName = backupName + "-" + BACKUP_FILE_NAME;
+    String deltaFileName = backupName + "-" + DELTA_BACKUP_FILE_NAME;
+    if (!new File(BACKUP_FOLDER.getAbsoluteFile(), fileName).exists()
+        && new File(BACKUP_FOLDER.getAbsoluteFile(), deltaFileName).exists()) {
+      return deltaFileName;
+    }
+    return fileName;
   }
 
   public static boolean loadBackup(String fileName) {
@@ -88,7 +333,7 @@ public class PlayerCompanionsServerDataBackup {
       log.error("{} unable to read backup file from {}!", Constants.LOG_ICON_NAME, file);
       return false;
     }
-    CompoundTag compoundTag = loadBackup(file);
+    CompoundTag compoundTag = isDeltaBackup(fileName) ? loadBackupChain(file) : loadBackup(file);
     if (compoundTag == null) {
       log.warn("{} loaded backup from {} was empty!", Constants.LOG_ICON_NAME, file);
       return false;
@@ -97,6 +342,60 @@ public class PlayerCompanionsServerDataBackup {
     return true;
   }
 
+  public static CompoundTag loadBackupChain(File deltaFile) {
+    CompoundTag deltaCompoundTag = loadBackup(deltaFile);
+    if (deltaCompoundTag == null || !deltaCompoundTag.contains(BASE_TAG)) {
+      log.error("{} invalid delta backup {}!", Constants.LOG_ICON_NAME, deltaFile);
+      return null;
+    }
+    String baseFileName = deltaCompoundTag.getString(BASE_TAG);
+    CompoundTag baseCompoundTag =
+        loadBackup(new File(BACKUP_FOLDER.getAbsoluteFile(), baseFileName));
+    if (baseCompoundTag == null) {
+      log.error(
+          "{} unable to find full backup {} for delta backup {}!",
+          Constants.LOG_ICON_NAME,
+          baseFileName,
+          deltaFile);
+      return null;
+    }
+
+    // Apply all delta backups of the same chain up to the requested one.
+    Map<UUID, CompoundTag> companions = new LinkedHashMap<>();
+    applyBackup(companions, baseCompoundTag);
+    for (File backupFile : listBackup()) {
+      String fileName = backupFile.getName();
+      if (isDeltaBackup(fileName)
+          && fileName.compareTo(baseFileName) > 0
+          && fileName.compareTo(deltaFile.getName()) < 0) {
+        CompoundTag compoundTag = loadBackup(backupFile);
+        if (compoundTag != null && baseFileName.equals(compoundTag.getString(BASE_TAG))) {
+          applyBackup(companions, compoundTag);
+        }
+      }
+    }
+    applyBackup(companions, deltaCompoundTag);
+
+    ListTag companionListTag = new ListTag();
+    companionListTag.addAll(companions.values());
+    baseCompoundTag.put(PlayerCompanionsServerData.COMPANIONS_TAG, companionListTag);
+    return baseCompoundTag;
+  }
+
+  private static void applyBackup(Map<UUID, CompoundTag> companions, CompoundTag compoundTag) {
+    ListTag companionListTag =
+        compoundTag.getList(PlayerCompanionsServerData.COMPANIONS_TAG, Tag.TAG_COMPOUND);
+    for (int i = 0; i < companionListTag.size(); ++i) {
+      CompoundTag companionCompoundTag = companionListTag.getCompound(i);
+      companions.put(
+          companionCompoundTag.getUUID(PlayerCompanionData.UUID_TAG), companionCompoundTag);
+    }
+    ListTag removedListTag = compoundTag.getList(REMOVED_TAG, Tag.TAG_INT_ARRAY);
+    for (Tag removedTag : removedListTag) {
+      companions.remove(NbtUtils.loadUUID(removedTag));
+    }
+  }
+
   public static CompoundTag loadBackup(File file) {
     if (file == null || !file.exists()) {
       log.error("{} unable to read backup file from {}!", Constants.LOG_ICON_NAME, file);
@@ -125,11 +424,14 @@ public class PlayerCompanionsServerDataBackup {
 
     File[] files = BACKUP_FOLDER.listFiles();
     for (File file : files) {
-      // We are only interested in files which ends with the backup file name.
-      if (file.getName().endsWith(BACKUP_FILE_NAME)) {
+      // We are only interested in files which ends with the backup file names.
+      if (file.getName().endsWith(BACKUP_FILE_NAME) || isDeltaBackup(file.getName())) {
         backupFiles.add(file);
       }
     }
+
+    // Backup file names are starting with their creation date, so the oldest files come first.
+    backupFiles.sort(Comparator.comparing(File::getName));
     return backupFiles;
   }
 }
@@ -20,13 +20,25 @@
 package de.markusbordihn.playercompanions.data;
 
 import de.markusbordihn.playercompanions.network.NetworkHandler;
+import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionsDataUpdate;
+import io.netty.buffer.Unpooled;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.network.FriendlyByteBuf;
 
 public class PlayerCompanionsServerDataClientSync {
 
+  // Player companions per owner, which needs to be synced at the end of the current tick.
+  private static final ConcurrentHashMap<UUID, Set<PlayerCompanionData>>
+      pendingPlayerCompanionsMap = new ConcurrentHashMap<>();
+
   protected PlayerCompanionsServerDataClientSync() {}
 
   public static void syncPlayerCompanionData(PlayerCompanionData playerCompanionData) {
@@ -35,11 +47,65 @@ public class PlayerCompanionsServerDataClientSync {
       return;
     }
 
-    CompoundTag data = exportPlayerCompanionData(playerCompanionData);
-    UUID playerCompanionUUID = playerCompanionData.getUUID();
-    UUID ownerUUID = playerCompanionData.getOwnerUUID();
+    // Collect updates per owner, which are send as one combined message at the end of the tick.
+    pendingPlayerCompanionsMap
+        .computeIfAbsent(playerCompanionData.getOwnerUUID(), key -> ConcurrentHashMap.newKeySet())
+        .add(playerCompanionData);
+  }
 
-    NetworkHandler.updatePlayerCompanionData(playerCompanionUUID, ownerUUID, data);
+  public static void syncPendingPlayerCompanionData() {
+    if (pendingPlayerCompanionsMap.isEmpty()) {
+      return;
+    }
+    Iterator<Map.Entry<UUID, Set<PlayerCompanionData>>> pendingIterator =
+        pendingPlayerCompanionsMap.entrySet().iterator();
+    while (pendingIterator.hasNext()) {
+      Map.Entry<UUID, Set<PlayerCompanionData>> pendingEntry = pendingIterator.next();
+      pendingIterator.remove();
+      syncPendingPlayerCompanionData(pendingEntry.getKey(), pendingEntry.getValue());
+    }
+  }
+
+  private static void syncPendingPlayerCompanionData(
+      UUID ownerUUID, Set<PlayerCompanionData> playerCompanionsData) {
+    // Changes for offline owners are synced with the full data on the next login.
+    if (NetworkHandler.getServerPlayer(ownerUUID) == null) {
+      for (PlayerCompanionData playerCompanionData : playerCompanionsData) {
+        playerCompanionData.clearChangedFields();
+      }
+      return;
+    }
+
+    FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+    int entries = 0;
+    for (PlayerCompanionData playerCompanionData : playerCompanionsData) {
+      UUID playerCompanionUUID = playerCompanionData.getUUID();
+      Set<PlayerCompanionDataField> changedFields = playerCompanionData.getChangedFields();
+      boolean synced = NetworkHandler.isPlayerCompanionSynced(playerCompanionUUID, ownerUUID);
+
+      if (synced && changedFields.isEmpty()) {
+        // Skip encoding, if nothing has changed since the last sync with the client.
+        NetworkHandler.addDataPackageCacheHit();
+      } else if (synced && !changedFields.contains(PlayerCompanionDataField.EQUIPMENT)) {
+        // Send only the changed fields, if the client already knows the player companion.
+        MessagePlayerCompanionsDataUpdate.writeDeltaEntry(
+            buffer, playerCompanionData, changedFields);
+        NetworkHandler.invalidatePlayerCompanionData(playerCompanionUUID, ownerUUID);
+        entries++;
+      } else if (NetworkHandler.hasPlayerCompanionDataChanged(
+          playerCompanionUUID, ownerUUID, playerCompanionData.getVersion())) {
+        // Export the full data only, if the client has not received this data version yet.
+        CompoundTag data = exportPlayerCompanionData(playerCompanionData);
+        if (data != null) {
+          MessagePlayerCompanionsDataUpdate.writeFullEntry(buffer, playerCompanionUUID, data);
+          NetworkHandler.setPlayerCompanionsSynced(ownerUUID, Set.of(playerCompanionUUID));
+          entries++;
+        }
+      }
+      playerCompanionData.clearChangedFields();
+    }
+    NetworkHandler.updatePlayerCompanionsData(ownerUUID, entries, buffer);
+    buffer.release();
   }
 
   public static void syncPlayerCompanionData(
@@ -48,8 +114,20 @@ public class PlayerCompanionsServerDataClientSync {
     if (ownerUUID == null || playerCompanionsData == null || playerCompanionsData.isEmpty()) {
       return;
     }
+    // Compare the data versions first to avoid exporting unchanged data.
+    Map<UUID, Integer> dataVersions = new HashMap<>();
+    for (PlayerCompanionData playerCompanionData : playerCompanionsData) {
+      if (playerCompanionData != null && playerCompanionData.getUUID() != null) {
+        dataVersions.put(playerCompanionData.getUUID(), playerCompanionData.getVersion());
+      }
+    }
+    if (!NetworkHandler.hasPlayerCompanionsDataChanged(ownerUUID, dataVersions)) {
+      return;
+    }
     CompoundTag data = exportPlayerCompanionsData(playerCompanionsData);
-    NetworkHandler.updatePlayerCompanionsData(ownerUUID, data);
+    if (NetworkHandler.updatePlayerCompanionsData(ownerUUID, data, dataVersions)) {
+      NetworkHandler.setPlayerCompanionsSynced(ownerUUID, new HashSet<>(dataVersions.keySet()));
+    }
   }
 
   public static String exportPlayerCompanionDataString(PlayerCompanionData playerCompanionData) {
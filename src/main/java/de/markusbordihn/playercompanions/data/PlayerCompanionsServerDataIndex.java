@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.data;
+
+import de.markusbordihn.playercompanions.entity.type.PlayerCompanionType;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+/**
+ * Secondary indices for the server side player companions by dimension, type and loaded state.
+ * The returned sets are live views and should not be modified.
+ */
+public class PlayerCompanionsServerDataIndex {
+
+  private static final ConcurrentHashMap<ResourceKey<Level>, Set<PlayerCompanionData>>
+      companionsPerLevelMap = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<PlayerCompanionType, Set<PlayerCompanionData>>
+      companionsPerTypeMap = new ConcurrentHashMap<>();
+  private static final Set<PlayerCompanionData> loadedCompanions = ConcurrentHashMap.newKeySet();
+
+  // Last indexed keys per companion, to be able to remove outdated index entries.
+  private static final ConcurrentHashMap<UUID, IndexedKeys> indexedKeysMap =
+      new ConcurrentHashMap<>();
+
+  protected PlayerCompanionsServerDataIndex() {}
+
+  public static void clear() {
+    companionsPerLevelMap.clear();
+    companionsPerTypeMap.clear();
+    loadedCompanions.clear();
+    indexedKeysMap.clear();
+  }
+
+  public static void add(PlayerCompanionData playerCompanion) {
+    update(playerCompanion, false);
+  }
+
+  public static void update(PlayerCompanionData playerCompanion, boolean loaded) {
+    if (playerCompanion == null || playerCompanion.getUUID() == null) {
+      return;
+    }
+    IndexedKeys indexedKeys = indexedKeysMap.get(playerCompanion.getUUID());
+    ResourceKey<Level> level = playerCompanion.getLevel();
+    PlayerCompanionType type = playerCompanion.getType();
+    if (indexedKeys != null
+        && indexedKeys.level == level
+        && indexedKeys.type == type
+        && indexedKeys.loaded == loaded) {
+      return;
+    }
+    remove(playerCompanion);
+
+    // Add companion with the current keys.
+    if (level != null) {
+      companionsPerLevelMap
+          .computeIfAbsent(level, key -> ConcurrentHashMap.newKeySet())
+          .add(playerCompanion);
+    }
+    if (type != null) {
+      companionsPerTypeMap
+          .computeIfAbsent(type, key -> ConcurrentHashMap.newKeySet())
+          .add(playerCompanion);
+    }
+    if (loaded) {
+      loadedCompanions.add(playerCompanion);
+    }
+    indexedKeysMap.put(playerCompanion.getUUID(), new IndexedKeys(level, type, loaded));
+  }
+
+  public static void remove(PlayerCompanionData playerCompanion) {
+    if (playerCompanion == null || playerCompanion.getUUID() == null) {
+      return;
+    }
+    IndexedKeys indexedKeys = indexedKeysMap.remove(playerCompanion.getUUID());
+    if (indexedKeys == null) {
+      return;
+    }
+    if (indexedKeys.level != null) {
+      removeFromSet(companionsPerLevelMap.get(indexedKeys.level), playerCompanion);
+    }
+    if (indexedKeys.type != null) {
+      removeFromSet(companionsPerTypeMap.get(indexedKeys.type), playerCompanion);
+    }
+    loadedCompanions.remove(playerCompanion);
+  }
+
+  private static void removeFromSet(
+      Set<PlayerCompanionData> playerCompanions, PlayerCompanionData playerCompanion) {
+    if (playerCompanions != null) {
+      playerCompanions.remove(playerCompanion);
+    }
+  }
+
+  public static Set<PlayerCompanionData> getCompanions(ResourceKey<Level> level) {
+    Set<PlayerCompanionData> playerCompanions = companionsPerLevelMap.get(level);
+    return playerCompanions != null ? playerCompanions : Collections.emptySet();
+  }
+
+  public static Set<PlayerCompanionData> getCompanions(PlayerCompanionType type) {
+    Set<PlayerCompanionData> playerCompanions = companionsPerTypeMap.get(type);
+    return playerCompanions != null ? playerCompanions : Collections.emptySet();
+  }
+
+  public static Set<PlayerCompanionData> getLoadedCompanions() {
+    return loadedCompanions;
+  }
+
+  private static class IndexedKeys {
+    private final ResourceKey<Level> level;
+    private final PlayerCompanionType type;
+    private final boolean loaded;
+
+    IndexedKeys(ResourceKey<Level> level, PlayerCompanionType type, boolean loaded) {
+      this.level = level;
+      this.type = type;
+      this.loaded = loaded;
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.data;
+
+import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.metrics.MetricTimer;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Stores the companions of each owner in their own file under world/player_companions/companions,
+ * so that a save only needs to rewrite the files of owners with changed companions.
+ */
+public class PlayerCompanionsServerDataOwnerStorage {
+
+  public static final String STORAGE_FOLDER_NAME = "companions";
+  public static final String STORAGE_FILE_EXTENSION = ".dat";
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  private static final String TEMP_FILE_EXTENSION = ".tmp";
+  private static final MetricTimer loadOwnerTimer = MetricsRegistry.getTimer("data.owner.load");
+  private static final MetricTimer saveOwnerTimer = MetricsRegistry.getTimer("data.owner.save");
+
+  protected PlayerCompanionsServerDataOwnerStorage() {}
+
+  public static File getStorageFolder(MinecraftServer server) {
+    return new File(
+        new File(server.getWorldPath(LevelResource.ROOT).toFile(), Constants.MOD_ID),
+        STORAGE_FOLDER_NAME);
+  }
+
+  public static File getOwnerFile(MinecraftServer server, UUID ownerUUID) {
+    return new File(getStorageFolder(server), ownerUUID.toString() + STORAGE_FILE_EXTENSION);
+  }
+
+  public static boolean hasOwnerFile(MinecraftServer server, UUID ownerUUID) {
+    return server != null && ownerUUID != null && getOwnerFile(server, ownerUUID).exists();
+  }
+
+  public static List<UUID> listOwners(MinecraftServer server) {
+    List<UUID> owners = new ArrayList<>();
+    File[] files = server != null ? getStorageFolder(server).listFiles() : null;
+    if (files == null) {
+      return owners;
+    }
+    for (File file : files) {
+      String fileName = file.getName();
+      if (fileName.endsWith(STORAGE_FILE_EXTENSION)) {
+        try {
+          owners.add(
+              UUID.fromString(
+                  fileName.substring(0, fileName.length() - STORAGE_FILE_EXTENSION.length())));
+        } catch (IllegalArgumentException exception) {
+          log.warn("{} ignore unknown owner file {}", Constants.LOG_ICON_NAME, file);
+        }
+      }
+    }
+    return owners;
+  }
+
+  public static ListTag loadOwner(MinecraftServer server, UUID ownerUUID) {
+    File file = getOwnerFile(server, ownerUUID);
+    if (!file.exists()) {
+      return new ListTag();
+    }
+    long startTime = System.nanoTime();
+    try {
+      CompoundTag compoundTag = NbtIo.readCompressed(file);
+      if (compoundTag != null
+          && compoundTag.contains(PlayerCompanionsServerData.COMPANIONS_TAG)) {
+        return compoundTag.getList(PlayerCompanionsServerData.COMPANIONS_TAG, 10);
+      }
+    } catch (final IOException exception) {
+      log.error(
+          "{} failed to load companions of owner {} from {}: {}",
+          Constants.LOG_ICON_NAME,
+          ownerUUID,
+          file,
+          exception);
+    } finally {
+      loadOwnerTimer.record(System.nanoTime() - startTime);
+    }
+    return new ListTag();
+  }
+
+  public static boolean saveOwner(
+      MinecraftServer server, UUID ownerUUID, Set<PlayerCompanionData> playerCompanions) {
+    File file = getOwnerFile(server, ownerUUID);
+
+    // Remove owner file, if there are no companions left.
+    if (playerCompanions == null || playerCompanions.isEmpty()) {
+      deleteOwner(server, ownerUUID);
+      return true;
+    }
+
+    ListTag companionListTag = new ListTag();
+    for (PlayerCompanionData playerCompanion : playerCompanions) {
+      if (playerCompanion != null) {
+        companionListTag.add(playerCompanion.saveIfDirty());
+      }
+    }
+    CompoundTag compoundTag = new CompoundTag();
+    compoundTag.put(PlayerCompanionsServerData.COMPANIONS_TAG, companionListTag);
+
+    // Write to a temporary file first, to avoid broken owner files on crashes.
+    File tempFile = new File(file.getParentFile(), file.getName() + TEMP_FILE_EXTENSION);
+    long startTime = System.nanoTime();
+    try {
+      if (!file.getParentFile().exists()) {
+        log.info(
+            "{} creating companion storage folder at {}",
+            Constants.LOG_ICON_NAME,
+            file.getParentFile());
+        file.getParentFile().mkdirs();
+      }
+      NbtIo.writeCompressed(compoundTag, tempFile);
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      return true;
+    } catch (final IOException exception) {
+      log.error(
+          "{} failed to save companions of owner {} to {}: {}",
+          Constants.LOG_ICON_NAME,
+          ownerUUID,
+          file,
+          exception);
+      return false;
+    } finally {
+      saveOwnerTimer.record(System.nanoTime() - startTime);
+    }
+  }
+
+  public static void deleteOwner(MinecraftServer server, UUID ownerUUID) {
+    File file = getOwnerFile(server, ownerUUID);
+    try {
+      Files.deleteIfExists(file.toPath());
+    } catch (final IOException exception) {
+      log.error(
+          "{} failed to delete companion storage {}: {}", Constants.LOG_ICON_NAME, file, exception);
+    }
+  }
+}
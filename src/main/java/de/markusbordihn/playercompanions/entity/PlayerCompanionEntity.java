@@ -42,6 +42,7 @@ import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvent;
@@ -97,13 +98,17 @@ public class PlayerCompanionEntity extends PlayerCompanionEntityData
   private static final int INACTIVE_TICK = 100;
   private static final int GLOW_TICK = LightBlock.TICK_TTL / 2;
   private static final int ANNOYING_COUNTER_TICK = 20 * 60 * 5; // In ticks: 5 minutes
+  private static final int DORMANT_CHECK_TICK = 20;
+  private static final int DORMANT_WAKE_UP_TICK = 20 * 30; // In ticks: 30 seconds
   private int ticker = 0;
+  private int dormantTicker = 0;
   private int glowTicker = 0;
   private int annoyingCounterTicker = 0;
   private int annoyingCounter = 0;
 
   // Temporary states
   private boolean wasOnGround;
+  private boolean dormant = false;
 
   public PlayerCompanionEntity(
       EntityType<? extends PlayerCompanionEntity> entityType,
@@ -117,6 +122,7 @@ public class PlayerCompanionEntity extends PlayerCompanionEntityData
     // Distribute Ticks along several entities.
     this.ticker = this.random.nextInt(0, INACTIVE_TICK / 2);
     this.glowTicker = this.random.nextInt(0, GLOW_TICK / 2);
+    this.dormantTicker = this.random.nextInt(0, DORMANT_CHECK_TICK);
 
     // Force data sync.
     setDataSyncNeeded();
@@ -235,6 +241,7 @@ public class PlayerCompanionEntity extends PlayerCompanionEntityData
   }
 
   public void handleCommand(PlayerCompanionCommand command) {
+    wakeUp();
     switch (command) {
       case SIT:
         sit();
@@ -445,6 +452,9 @@ public class PlayerCompanionEntity extends PlayerCompanionEntityData
     // We are using the used item hand instead of interaction hand.
     ItemStack itemStack = player.getItemInHand(player.getUsedItemHand());
     boolean isOwner = this.isTame() && this.isOwnedBy(player);
+    if (isOwner && this.dormant) {
+      wakeUp();
+    }
 
     // Most of the events will be client -> server side to make sure we have most of the flexibility
     // like additional keys and client-side animations.
@@ -589,6 +599,15 @@ public class PlayerCompanionEntity extends PlayerCompanionEntityData
     // Perform tick for AI and other important steps.
     super.tick();
 
+    // ServerSide: Freeze goals and features of dormant companions to save performance.
+    if (!this.level().isClientSide && this.dormantTicker++ >= DORMANT_CHECK_TICK) {
+      this.dormantTicker = 0;
+      setDormant(shouldBeDormant());
+    }
+    if (this.dormant) {
+      return;
+    }
+
     // Allow do disable entity to save performance and to allow basic respawn logic.
     if (!isActive()) {
       if (this.ticker++ >= INACTIVE_TICK) {
@@ -644,6 +663,64 @@ public class PlayerCompanionEntity extends PlayerCompanionEntityData
     this.wasOnGround = this.onGround();
   }
 
+  public boolean isDormant() {
+    return this.dormant;
+  }
+
+  public void wakeUp() {
+    // Delay the next dormant check, to avoid that the companion falls asleep again immediately.
+    this.dormantTicker = -DORMANT_WAKE_UP_TICK;
+    setDormant(false);
+  }
+
+  private void setDormant(boolean dormant) {
+    if (this.dormant == dormant) {
+      return;
+    }
+    if (dormant) {
+      this.navigation.stop();
+      super.setTarget(null);
+    }
+    this.dormant = dormant;
+    log.debug("{} {} is now {}", Constants.LOG_ICON_NAME, this, dormant ? "dormant" : "awake");
+  }
+
+  private boolean shouldBeDormant() {
+    if (!Boolean.TRUE.equals(COMMON.dormantModeEnabled.get()) || !this.hasOwner()) {
+      return false;
+    }
+    if (Boolean.TRUE.equals(COMMON.dormantWhenOrderedToSit.get()) && this.isOrderedToSit()) {
+      return true;
+    }
+    MinecraftServer server = this.getServer();
+    if (server == null) {
+      return false;
+    }
+    ServerPlayer owner = server.getPlayerList().getPlayer(this.getOwnerUUID());
+    if (owner == null) {
+      return Boolean.TRUE.equals(COMMON.dormantWhenOwnerOffline.get());
+    }
+    if (owner.level() != this.level()) {
+      return Boolean.TRUE.equals(COMMON.dormantWhenOwnerInOtherDimension.get());
+    }
+    int ownerDistance = COMMON.dormantOwnerDistance.get();
+    return ownerDistance > 0 && this.distanceToSqr(owner) > (double) ownerDistance * ownerDistance;
+  }
+
+  @Override
+  protected boolean isImmobile() {
+    // Dormant companions are skipping their goals, navigation and other server AI steps.
+    return super.isImmobile() || this.dormant;
+  }
+
+  @Override
+  public boolean hurt(DamageSource damageSource, float damage) {
+    if (this.dormant) {
+      wakeUp();
+    }
+    return super.hurt(damageSource, damage);
+  }
+
   @Override
   public void die(DamageSource damageSource) {
     super.die(damageSource);
@@ -21,6 +21,8 @@ package de.markusbordihn.playercompanions.entity;
 
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.config.CommonConfig;
+import de.markusbordihn.playercompanions.data.Experience;
+import de.markusbordihn.playercompanions.data.ExperienceScaling;
 import de.markusbordihn.playercompanions.data.PlayerCompanionData;
 import de.markusbordihn.playercompanions.data.PlayerCompanionsDataSync;
 import de.markusbordihn.playercompanions.skin.SkinModel;
@@ -28,7 +30,6 @@ import de.markusbordihn.playercompanions.skin.SkinType;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import javax.annotation.Nullable;
 import net.minecraft.core.BlockPos;
@@ -47,6 +48,8 @@ import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.EquipmentSlot.Type;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.TamableAnimal;
+import net.minecraft.world.entity.ai.attributes.Attribute;
+import net.minecraft.world.entity.ai.attributes.AttributeInstance;
 import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
 import net.minecraft.world.entity.ai.targeting.TargetingConditions;
@@ -131,6 +134,9 @@ public class PlayerCompanionEntityData extends TamableAnimal
   // Internal references
   private PlayerCompanionEntity playerCompanionEntity;
   private int dataSyncTicker = 0;
+  // Cached level scaling for the current config and base values
+  private ExperienceScaling maxHealthScaling;
+  private ExperienceScaling attackDamageScaling;
 
   protected PlayerCompanionEntityData(
       EntityType<? extends TamableAnimal> entityType,
@@ -311,10 +317,13 @@ public class PlayerCompanionEntityData extends TamableAnimal
       this.entityData.set(DATA_EXPERIENCE, experience);
       if (isMaxExperienceLevel()) {
         return -1;
-      } else if (getExperienceForNextLevel() <= getExperience()) {
-        return increaseExperienceLevel(1);
-      } else if (getExperienceForLevel() >= getExperience()) {
-        decreaseExperienceLevel(1);
+      }
+      int experienceLevel = getExperienceLevel();
+      int level = Math.min(Experience.getLevelForExperience(experience), getMaxExperienceLevel());
+      if (level > experienceLevel) {
+        return setExperienceLevel(level);
+      } else if (level < experienceLevel) {
+        setExperienceLevel(level);
       }
     }
     return -1;
@@ -563,67 +572,45 @@ public class PlayerCompanionEntityData extends TamableAnimal
   }
 
   public void adjustMaxHealthPerLevel(int level) {
-    int healthAdjustment =
-        getHealthAdjustmentFromExperienceLevel(
-            level,
-            COMMON.maxHealth.get(),
-            (int) getAttribute(Attributes.MAX_HEALTH).getBaseValue());
-    increaseMaxHealth(healthAdjustment);
-  }
-
-  public void increaseMaxHealth(int health) {
-    if (health > 0) {
-      // Remove previous attribute modifier, if needed.
-      Set<AttributeModifier> attributeModifiers =
-          getAttribute(Attributes.MAX_HEALTH).getModifiers();
-      if (!attributeModifiers.isEmpty()) {
-        for (AttributeModifier attributeModifier : attributeModifiers) {
-          if (attributeModifier != null
-              && attributeModifier.getName().equals(ATTRIBUTE_MAX_HEALTH)) {
-            getAttribute(Attributes.MAX_HEALTH).removeModifier(attributeModifier);
-          }
-        }
-      }
+    int maxHealth = COMMON.maxHealth.get();
+    int baseHealth = (int) getAttribute(Attributes.MAX_HEALTH).getBaseValue();
+    if (this.maxHealthScaling == null || !this.maxHealthScaling.is(maxHealth, baseHealth)) {
+      this.maxHealthScaling = ExperienceScaling.get(ATTRIBUTE_MAX_HEALTH, maxHealth, baseHealth);
+    }
+    applyMaxHealthModifier(this.maxHealthScaling.getModifier(level));
+  }
 
-      // Add new health modifier
-      AttributeModifier increaseHealthModifier =
-          new AttributeModifier(ATTRIBUTE_MAX_HEALTH, health, AttributeModifier.Operation.ADDITION);
-      getAttribute(Attributes.MAX_HEALTH).addTransientModifier(increaseHealthModifier);
-      if (isAlive()) {
-        heal(getMaxHealth());
-      }
+  private void applyMaxHealthModifier(AttributeModifier attributeModifier) {
+    if (applyAttributeModifier(Attributes.MAX_HEALTH, attributeModifier) && isAlive()) {
+      heal(getMaxHealth());
     }
   }
 
   public void adjustAttackDamagePerLevel(int level) {
-    int attackDamageAdjustment =
-        getAttackDamageAdjustmentFromExperienceLevel(
-            level,
-            COMMON.maxAttackDamage.get(),
-            (int) getAttribute(Attributes.ATTACK_DAMAGE).getBaseValue());
-    increaseAttackDamage(attackDamageAdjustment);
-  }
-
-  public void increaseAttackDamage(int attackDamage) {
-    if (attackDamage > 0) {
-      // Remove previous attribute modifier, if needed.
-      Set<AttributeModifier> attributeModifiers =
-          getAttribute(Attributes.ATTACK_DAMAGE).getModifiers();
-      if (!attributeModifiers.isEmpty()) {
-        for (AttributeModifier attributeModifier : attributeModifiers) {
-          if (attributeModifier != null
-              && attributeModifier.getName().equals(ATTRIBUTE_ATTACK_DAMAGE)) {
-            getAttribute(Attributes.ATTACK_DAMAGE).removeModifier(attributeModifier);
-          }
-        }
-      }
+    int maxAttackDamage = COMMON.maxAttackDamage.get();
+    int baseAttackDamage = (int) getAttribute(Attributes.ATTACK_DAMAGE).getBaseValue();
+    if (this.attackDamageScaling == null
+        || !this.attackDamageScaling.is(maxAttackDamage, baseAttackDamage)) {
+      this.attackDamageScaling =
+          ExperienceScaling.get(ATTRIBUTE_ATTACK_DAMAGE, maxAttackDamage, baseAttackDamage);
+    }
+    applyAttributeModifier(Attributes.ATTACK_DAMAGE, this.attackDamageScaling.getModifier(level));
+  }
+
+  private boolean applyAttributeModifier(
+      Attribute attribute, @Nullable AttributeModifier attributeModifier) {
+    AttributeInstance attributeInstance = getAttribute(attribute);
+    if (attributeModifier == null || attributeInstance == null) {
+      return false;
+    }
 
-      // Add new attackDamage modifier
-      AttributeModifier increaseAttackDamageModifier =
-          new AttributeModifier(
-              ATTRIBUTE_ATTACK_DAMAGE, attackDamage, AttributeModifier.Operation.ADDITION);
-      getAttribute(Attributes.ATTACK_DAMAGE).addTransientModifier(increaseAttackDamageModifier);
+    // Replace previous attribute modifier by its UUID, if it has changed.
+    UUID modifierUUID = attributeModifier.getId();
+    if (attributeInstance.getModifier(modifierUUID) != attributeModifier) {
+      attributeInstance.removeModifier(modifierUUID);
+      attributeInstance.addTransientModifier(attributeModifier);
     }
+    return true;
   }
 
   public int getAttackDamage() {
@@ -90,40 +90,11 @@ public interface PlayerCompanionExperience {
     return Experience.getExperienceForLevel(getExperienceLevel());
   }
 
-  default int getHealthAdjustmentFromExperienceLevel(int level, int maxHealth, int baseHealth) {
-    // Early return if we don't need to calculate anything.
-    if (level == 1 || maxHealth == 0 || baseHealth >= maxHealth) {
-      return 0;
-    }
-    double healthFactorPerLevel = (double) (maxHealth - baseHealth) / getMaxExperienceLevel();
-    if (healthFactorPerLevel > 0) {
-      return (int) Math.floor(level * healthFactorPerLevel + 0.5);
-    }
-    return 0;
-  }
-
-  default int getAttackDamageAdjustmentFromExperienceLevel(
-      int level, int maxAttackDamage, int baseAttackDamage) {
-    // Early return if we don't need to calculate anything.
-    if (level == 1 || maxAttackDamage == 0 || baseAttackDamage >= maxAttackDamage) {
-      return 0;
-    }
-    double attackDamageFactorPerLevel =
-        (double) (maxAttackDamage - baseAttackDamage) / getMaxExperienceLevel();
-    if (attackDamageFactorPerLevel > 0) {
-      return (int) Math.floor(level * attackDamageFactorPerLevel + 0.5);
-    }
-    return 0;
-  }
-
   default int getHealingAmountFromExperienceLevel(int level, int minHealing, int maxHealing) {
-    if (level == 1 || minHealing >= maxHealing) {
+    if (minHealing >= maxHealing) {
       return minHealing;
     }
-    double healingFactorPerLevel = (double) (maxHealing - minHealing) / getMaxExperienceLevel();
-    if (healingFactorPerLevel > 0) {
-      return minHealing + (int) Math.floor(level * healingFactorPerLevel + 0.5);
-    }
-    return minHealing;
+    return minHealing
+        + Experience.getLevelAdjustment(level, maxHealing, minHealing, getMaxExperienceLevel());
   }
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.entity;
+
+import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.config.CommonConfig;
+import de.markusbordihn.playercompanions.entity.type.PlayerCompanionType;
+import de.markusbordihn.playercompanions.metrics.MetricTimer;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import de.markusbordihn.playercompanions.metrics.PlayerCompanionsProfiler;
+import de.markusbordihn.playercompanions.metrics.ProfilerSection;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Central scheduler for the periodic companion feature tasks on the server side. Tasks are executed
+ * in the order they are scheduled within the configured time budget per tick, remaining tasks are
+ * carried over to the next tick. Client side tasks are executed immediately.
+ */
+@EventBusSubscriber
+public class PlayerCompanionFeatureScheduler {
+
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  private static final CommonConfig.Config COMMON = CommonConfig.COMMON;
+
+  private static final Deque<ScheduledTask> taskQueue = new ArrayDeque<>();
+  private static final Map<PlayerCompanionFeatureTask, MetricTimer> taskTimerMap =
+      new EnumMap<>(PlayerCompanionFeatureTask.class);
+  private static final Map<PlayerCompanionType, ProfilerSection[]> profilerSectionMap =
+      new EnumMap<>(PlayerCompanionType.class);
+  private static long ticks = 0;
+  private static int lastExecutedTasks = 0;
+  private static int lastDeferredTasks = 0;
+  private static long lastMaxLateness = 0;
+  private static long totalExecutedTasks = 0;
+  private static long totalLateness = 0;
+
+  static {
+    for (PlayerCompanionFeatureTask task : PlayerCompanionFeatureTask.values()) {
+      taskTimerMap.put(
+          task, MetricsRegistry.getTimer("feature.task." + task.name().toLowerCase(Locale.ROOT)));
+    }
+  }
+
+  protected PlayerCompanionFeatureScheduler() {}
+
+  @SubscribeEvent
+  public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
+    taskQueue.clear();
+    ticks = 0;
+    lastExecutedTasks = 0;
+    lastDeferredTasks = 0;
+    lastMaxLateness = 0;
+    totalExecutedTasks = 0;
+    totalLateness = 0;
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase == TickEvent.Phase.END) {
+      ticks++;
+      executeTasks();
+    }
+  }
+
+  public static void schedule(
+      PlayerCompanionsFeatures features, PlayerCompanionFeatureTask task, Runnable runnable) {
+    if (features.level.isClientSide) {
+      runnable.run();
+      return;
+    }
+
+    // Ignore task, if the same task is already queued for this companion.
+    if (features.scheduledTasks.add(task)) {
+      taskQueue.add(new ScheduledTask(features, task, runnable, ticks));
+    }
+  }
+
+  private static void executeTasks() {
+    if (taskQueue.isEmpty()) {
+      lastExecutedTasks = 0;
+      lastDeferredTasks = 0;
+      lastMaxLateness = 0;
+      return;
+    }
+
+    // Execute at least one task per tick to make sure that the queue is always processed.
+    long maxTime = COMMON.featureTaskMaxTimePerTick.get() * 1000000L;
+    long startTime = System.nanoTime();
+    int executedTasks = 0;
+    long maxLateness = 0;
+    while (!taskQueue.isEmpty()
+        && (executedTasks == 0 || maxTime <= 0 || System.nanoTime() - startTime < maxTime)) {
+      ScheduledTask scheduledTask = taskQueue.poll();
+      scheduledTask.features.scheduledTasks.remove(scheduledTask.task);
+      if (scheduledTask.features.playerCompanionEntity.isRemoved()) {
+        continue;
+      }
+      long taskStartTime = System.nanoTime();
+      scheduledTask.runnable.run();
+      long taskTime = System.nanoTime() - taskStartTime;
+      taskTimerMap.get(scheduledTask.task).record(taskTime);
+      if (PlayerCompanionsProfiler.isEnabled()) {
+        getProfilerSection(scheduledTask.features, scheduledTask.task).record(taskTime);
+      }
+      long lateness = ticks - scheduledTask.scheduledTick;
+      maxLateness = Math.max(maxLateness, lateness);
+      totalLateness += lateness;
+      executedTasks++;
+    }
+    totalExecutedTasks += executedTasks;
+    lastExecutedTasks = executedTasks;
+    lastDeferredTasks = taskQueue.size();
+    lastMaxLateness = maxLateness;
+    if (lastDeferredTasks > 0) {
+      log.debug(
+          "Executed {} and deferred {} companion feature tasks", executedTasks, lastDeferredTasks);
+    }
+  }
+
+  private static ProfilerSection getProfilerSection(
+      PlayerCompanionsFeatures features, PlayerCompanionFeatureTask task) {
+    ProfilerSection[] profilerSections =
+        profilerSectionMap.computeIfAbsent(
+            features.playerCompanionEntity.getCompanionType(),
+            key -> new ProfilerSection[PlayerCompanionFeatureTask.values().length]);
+    ProfilerSection profilerSection = profilerSections[task.ordinal()];
+    if (profilerSection == null) {
+      profilerSection =
+          PlayerCompanionsProfiler.getSection(
+              String.format(
+                  "feature %s [%s]",
+                  task.name().toLowerCase(Locale.ROOT),
+                  features.getCompanionTypeName()));
+      profilerSections[task.ordinal()] = profilerSection;
+    }
+    return profilerSection;
+  }
+
+  public static int getQueuedTasks() {
+    return taskQueue.size();
+  }
+
+  public static int getLastExecutedTasks() {
+    return lastExecutedTasks;
+  }
+
+  public static int getLastDeferredTasks() {
+    return lastDeferredTasks;
+  }
+
+  public static long getLastMaxLateness() {
+    return lastMaxLateness;
+  }
+
+  public static double getAverageLateness() {
+    return totalExecutedTasks > 0 ? (double) totalLateness / totalExecutedTasks : 0;
+  }
+
+  public static long getTotalExecutedTasks() {
+    return totalExecutedTasks;
+  }
+
+  private static class ScheduledTask {
+    private final PlayerCompanionsFeatures features;
+    private final PlayerCompanionFeatureTask task;
+    private final Runnable runnable;
+    private final long scheduledTick;
+
+    ScheduledTask(
+        PlayerCompanionsFeatures features,
+        PlayerCompanionFeatureTask task,
+        Runnable runnable,
+        long scheduledTick) {
+      this.features = features;
+      this.task = task;
+      this.runnable = runnable;
+      this.scheduledTick = scheduledTick;
+    }
+  }
+}
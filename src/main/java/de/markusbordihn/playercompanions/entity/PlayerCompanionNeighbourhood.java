@@ -0,0 +1,194 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.entity;
+
+import de.markusbordihn.playercompanions.config.CommonConfig;
+import de.markusbordihn.playercompanions.metrics.MetricCounter;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.TamableAnimal;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+/**
+ * Snapshot of the nearby players, tamed animals and item entities around the companions of an
+ * owner. Player companions are excluded, because they are looked up by the spatial index. The
+ * snapshot is created with the max. configured feature radius and is reused by the periodic
+ * feature tasks of all companions of the same owner within the covered area and tick. Goals which
+ * are checked every tick should use their own type filtered lookups instead.
+ */
+@EventBusSubscriber
+public class PlayerCompanionNeighbourhood {
+
+  private static final CommonConfig.Config COMMON = CommonConfig.COMMON;
+
+  // Radius of the owner bonus check and the additional range for nearby companions of the owner.
+  private static final int OWNER_BONUS_RADIUS = 8;
+  private static final int SNAPSHOT_MARGIN = 8;
+
+  // Snapshots per owner for the current tick, companions of the same owner could be far apart.
+  private static final Map<UUID, List<PlayerCompanionNeighbourhood>> clientNeighbourhoodMap =
+      new ConcurrentHashMap<>();
+  private static final Map<UUID, List<PlayerCompanionNeighbourhood>> serverNeighbourhoodMap =
+      new ConcurrentHashMap<>();
+
+  // Metrics
+  private static final MetricCounter snapshotBuildsCounter =
+      MetricsRegistry.getCounter("neighbourhood.snapshot.builds");
+  private static final MetricCounter snapshotHitsCounter =
+      MetricsRegistry.getCounter("neighbourhood.snapshot.hits");
+
+  private final ResourceKey<Level> level;
+  private final long gameTime;
+  private final AABB area;
+  private final List<Player> players;
+  private final List<TamableAnimal> tamableAnimals = new ArrayList<>();
+  private final List<ItemEntity> itemEntities = new ArrayList<>();
+
+  private PlayerCompanionNeighbourhood(Level level, AABB area) {
+    this.level = level.dimension();
+    this.gameTime = level.getGameTime();
+    this.area = area;
+    this.players = PlayerCompanionSpatialIndex.getPlayers(level, area, entity -> true);
+
+    // Single scan over the entity sections for the other consumed entity categories.
+    for (Entity entity :
+        level.getEntities((Entity) null, area, PlayerCompanionNeighbourhood::isSnapshotEntity)) {
+      if (entity instanceof TamableAnimal tamableAnimal) {
+        this.tamableAnimals.add(tamableAnimal);
+      } else if (entity instanceof ItemEntity itemEntity) {
+        this.itemEntities.add(itemEntity);
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
+    serverNeighbourhoodMap.clear();
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase == TickEvent.Phase.END) {
+      serverNeighbourhoodMap.clear();
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleClientTickEvent(TickEvent.ClientTickEvent event) {
+    if (event.phase == TickEvent.Phase.END) {
+      clientNeighbourhoodMap.clear();
+    }
+  }
+
+  public static PlayerCompanionNeighbourhood get(
+      PlayerCompanionEntity playerCompanionEntity, AABB area) {
+    Level level = playerCompanionEntity.level();
+    UUID uuid =
+        playerCompanionEntity.getOwnerUUID() != null
+            ? playerCompanionEntity.getOwnerUUID()
+            : playerCompanionEntity.getUUID();
+    Map<UUID, List<PlayerCompanionNeighbourhood>> neighbourhoodMap =
+        level.isClientSide ? clientNeighbourhoodMap : serverNeighbourhoodMap;
+    List<PlayerCompanionNeighbourhood> neighbourhoods =
+        neighbourhoodMap.computeIfAbsent(uuid, key -> new ArrayList<>());
+
+    // Reuse existing snapshot of the owner, if it was created in this tick and covers the area.
+    for (PlayerCompanionNeighbourhood neighbourhood : neighbourhoods) {
+      if (neighbourhood.gameTime == level.getGameTime()
+          && neighbourhood.level == level.dimension()
+          && neighbourhood.covers(area)) {
+        snapshotHitsCounter.increment();
+        return neighbourhood;
+      }
+    }
+
+    PlayerCompanionNeighbourhood neighbourhood =
+        new PlayerCompanionNeighbourhood(
+            level,
+            new AABB(playerCompanionEntity.blockPosition())
+                .inflate(getMaxRadius() + SNAPSHOT_MARGIN)
+                .minmax(area));
+    neighbourhoods.add(neighbourhood);
+    snapshotBuildsCounter.increment();
+    return neighbourhood;
+  }
+
+  public static int getMaxRadius() {
+    return Math.max(
+        OWNER_BONUS_RADIUS,
+        Math.max(
+            COMMON.collectorTypeRadius.get(),
+            Math.max(COMMON.healerTypeRadius.get(), COMMON.supporterTypeRadius.get())));
+  }
+
+  private static boolean isSnapshotEntity(Entity entity) {
+    return entity instanceof ItemEntity
+        || (entity instanceof TamableAnimal && !(entity instanceof PlayerCompanionEntity));
+  }
+
+  private static <T extends Entity> List<T> filter(
+      List<T> entities, AABB area, Predicate<? super T> predicate) {
+    List<T> result = new ArrayList<>();
+    for (T entity : entities) {
+      if (!entity.isRemoved()
+          && entity.getBoundingBox().intersects(area)
+          && predicate.test(entity)) {
+        result.add(entity);
+      }
+    }
+    return result;
+  }
+
+  public boolean covers(AABB area) {
+    return this.area.minX <= area.minX
+        && this.area.minY <= area.minY
+        && this.area.minZ <= area.minZ
+        && this.area.maxX >= area.maxX
+        && this.area.maxY >= area.maxY
+        && this.area.maxZ >= area.maxZ;
+  }
+
+  public List<Player> getPlayers(AABB area, Predicate<? super Player> predicate) {
+    return filter(this.players, area, predicate);
+  }
+
+  public List<TamableAnimal> getTamableAnimals(
+      AABB area, Predicate<? super TamableAnimal> predicate) {
+    return filter(this.tamableAnimals, area, predicate);
+  }
+
+  public List<ItemEntity> getItemEntities(AABB area, Predicate<? super ItemEntity> predicate) {
+    return filter(this.itemEntities, area, predicate);
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+
+/**
+ * Server side spatial index of player companions and players per level, bucketed by chunk section.
+ * Companions update their section only when they are entering a new chunk section and players on
+ * movement, so that radius queries only need to check the few sections around the given area
+ * instead of the vanilla entity section lookups.
+ */
+@EventBusSubscriber
+public class PlayerCompanionSpatialIndex {
+
+  // Same margin as vanilla, because entities are bucketed by position and not by bounding box.
+  private static final double SECTION_MARGIN = 2.0D;
+
+  private static final SectionIndex<PlayerCompanionEntity> companionIndex = new SectionIndex<>();
+  private static final SectionIndex<Player> playerIndex = new SectionIndex<>();
+
+  protected PlayerCompanionSpatialIndex() {}
+
+  @SubscribeEvent
+  public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
+    companionIndex.clear();
+    playerIndex.clear();
+  }
+
+  @SubscribeEvent
+  public static void handlePlayerTickEvent(TickEvent.PlayerTickEvent event) {
+    if (event.phase == TickEvent.Phase.END && event.player instanceof ServerPlayer serverPlayer) {
+      playerIndex.update(serverPlayer);
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleEntityJoinLevelEvent(EntityJoinLevelEvent event) {
+    if (event.getEntity() instanceof PlayerCompanionEntity playerCompanionEntity
+        && !event.getLevel().isClientSide) {
+      companionIndex.update(playerCompanionEntity);
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleEntityEnteringSectionEvent(EntityEvent.EnteringSection event) {
+    if (event.getEntity() instanceof PlayerCompanionEntity playerCompanionEntity
+        && !playerCompanionEntity.level().isClientSide
+        && !playerCompanionEntity.isRemoved()) {
+      companionIndex.update(playerCompanionEntity);
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleEntityLeaveLevelEvent(EntityLeaveLevelEvent event) {
+    if (event.getEntity() instanceof PlayerCompanionEntity playerCompanionEntity) {
+      companionIndex.remove(playerCompanionEntity);
+    } else if (event.getEntity() instanceof ServerPlayer serverPlayer) {
+      playerIndex.remove(serverPlayer);
+    }
+  }
+
+  /** Returns the player companions of the given owner, which are within the given area. */
+  public static List<PlayerCompanionEntity> getOwnedCompanions(
+      Level level, UUID ownerUUID, AABB area, Predicate<? super PlayerCompanionEntity> predicate) {
+    if (ownerUUID == null) {
+      return Collections.emptyList();
+    }
+    Predicate<PlayerCompanionEntity> ownedPredicate =
+        entity -> ownerUUID.equals(entity.getOwnerUUID()) && predicate.test(entity);
+    if (level.isClientSide) {
+      return level.getEntitiesOfClass(PlayerCompanionEntity.class, area, ownedPredicate);
+    }
+    return companionIndex.getEntities(level.dimension(), area, ownedPredicate);
+  }
+
+  public static List<Player> getPlayers(
+      Level level, AABB area, Predicate<? super Player> predicate) {
+    if (level.isClientSide) {
+      return level.getEntitiesOfClass(Player.class, area, predicate);
+    }
+    return playerIndex.getEntities(level.dimension(), area, predicate);
+  }
+
+  public static int getNumberOfIndexedCompanions() {
+    return companionIndex.size();
+  }
+
+  public static int getNumberOfIndexedPlayers() {
+    return playerIndex.size();
+  }
+
+  private static class SectionIndex<T extends Entity> {
+
+    private final Map<ResourceKey<Level>, Map<Long, Set<T>>> sectionsPerLevelMap =
+        new ConcurrentHashMap<>();
+    private final Map<T, IndexedSection> indexedSectionMap = new ConcurrentHashMap<>();
+
+    void clear() {
+      sectionsPerLevelMap.clear();
+      indexedSectionMap.clear();
+    }
+
+    int size() {
+      return indexedSectionMap.size();
+    }
+
+    void update(T entity) {
+      ResourceKey<Level> level = entity.level().dimension();
+      long section = SectionPos.asLong(entity.blockPosition());
+      IndexedSection indexedSection = indexedSectionMap.get(entity);
+      if (indexedSection != null
+          && indexedSection.level == level
+          && indexedSection.section == section) {
+        return;
+      }
+      remove(entity);
+      sectionsPerLevelMap
+          .computeIfAbsent(level, key -> new ConcurrentHashMap<>())
+          .computeIfAbsent(section, key -> ConcurrentHashMap.newKeySet())
+          .add(entity);
+      indexedSectionMap.put(entity, new IndexedSection(level, section));
+    }
+
+    void remove(T entity) {
+      IndexedSection indexedSection = indexedSectionMap.remove(entity);
+      if (indexedSection == null) {
+        return;
+      }
+      Map<Long, Set<T>> sectionMap = sectionsPerLevelMap.get(indexedSection.level);
+      if (sectionMap == null) {
+        return;
+      }
+      Set<T> entities = sectionMap.get(indexedSection.section);
+      if (entities != null && entities.remove(entity) && entities.isEmpty()) {
+        sectionMap.remove(indexedSection.section, entities);
+      }
+    }
+
+    List<T> getEntities(ResourceKey<Level> level, AABB area, Predicate<? super T> predicate) {
+      Map<Long, Set<T>> sectionMap = sectionsPerLevelMap.get(level);
+      if (sectionMap == null || sectionMap.isEmpty()) {
+        return Collections.emptyList();
+      }
+      int minX = SectionPos.blockToSectionCoord(Mth.floor(area.minX - SECTION_MARGIN));
+      int minY = SectionPos.blockToSectionCoord(Mth.floor(area.minY - SECTION_MARGIN));
+      int minZ = SectionPos.blockToSectionCoord(Mth.floor(area.minZ - SECTION_MARGIN));
+      int maxX = SectionPos.blockToSectionCoord(Mth.floor(area.maxX + SECTION_MARGIN));
+      int maxY = SectionPos.blockToSectionCoord(Mth.floor(area.maxY + SECTION_MARGIN));
+      int maxZ = SectionPos.blockToSectionCoord(Mth.floor(area.maxZ + SECTION_MARGIN));
+      List<T> result = new ArrayList<>();
+
+      // Check only the occupied sections, if there are less of them than sections in the area.
+      long numberOfSections = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+      if (sectionMap.size() < numberOfSections) {
+        for (Map.Entry<Long, Set<T>> sectionEntry : sectionMap.entrySet()) {
+          long section = sectionEntry.getKey();
+          int x = SectionPos.x(section);
+          int y = SectionPos.y(section);
+          int z = SectionPos.z(section);
+          if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+            addEntities(sectionEntry.getValue(), area, predicate, result);
+          }
+        }
+        return result;
+      }
+
+      for (int x = minX; x <= maxX; x++) {
+        for (int y = minY; y <= maxY; y++) {
+          for (int z = minZ; z <= maxZ; z++) {
+            Set<T> entities = sectionMap.get(SectionPos.asLong(x, y, z));
+            if (entities != null) {
+              addEntities(entities, area, predicate, result);
+            }
+          }
+        }
+      }
+      return result;
+    }
+
+    private void addEntities(
+        Set<T> entities, AABB area, Predicate<? super T> predicate, List<T> result) {
+      for (T entity : entities) {
+        if (!entity.isRemoved()
+            && entity.getBoundingBox().intersects(area)
+            && predicate.test(entity)) {
+          result.add(entity);
+        }
+      }
+    }
+  }
+
+  private static class IndexedSection {
+    private final ResourceKey<Level> level;
+    private final long section;
+
+    IndexedSection(ResourceKey<Level> level, long section) {
+      this.level = level;
+      this.section = section;
+    }
+  }
+}
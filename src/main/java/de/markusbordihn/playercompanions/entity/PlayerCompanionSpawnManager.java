@@ -238,7 +238,8 @@ public class PlayerCompanionSpawnManager {
   public static Entity createCompanionEntity(
       PlayerCompanionData playerCompanion, ServerLevel serverLevel) {
     EntityType<?> entityType = playerCompanion.getEntityType();
-    CompoundTag entityData = playerCompanion.getEntityData();
+    // Entity data are shared with the cached save data, so only a copy should be adjusted.
+    CompoundTag entityData = playerCompanion.getEntityData().copy();
     Entity entity = entityType.create(serverLevel);
     if (entity != null && !entityData.isEmpty()) {
 
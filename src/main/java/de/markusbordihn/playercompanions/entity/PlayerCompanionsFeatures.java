@@ -20,13 +20,19 @@
 package de.markusbordihn.playercompanions.entity;
 
 import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.metrics.MetricTimer;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import de.markusbordihn.playercompanions.metrics.PlayerCompanionsProfiler;
+import de.markusbordihn.playercompanions.metrics.ProfilerSection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
 import net.minecraft.util.Mth;
-import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.NeutralMob;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
@@ -47,8 +53,12 @@ public class PlayerCompanionsFeatures {
   protected short experienceDistributeTicker = 0;
   protected short experienceOwnerBonusTicker = 0;
   // Internal states
+  protected final Set<PlayerCompanionFeatureTask> scheduledTasks =
+      EnumSet.noneOf(PlayerCompanionFeatureTask.class);
   protected int distributedExperience = 0;
   protected NeutralMob neutralMob;
+  private MetricTimer tickTimer;
+  private ProfilerSection tickSection;
 
   // Animation related information
   private float flap;
@@ -90,6 +100,31 @@ public class PlayerCompanionsFeatures {
     return this.playerCompanionEntity.getExperienceLevel();
   }
 
+  protected AABB getArea(int radius) {
+    return new AABB(playerCompanionEntity.blockPosition()).inflate(radius);
+  }
+
+  protected void scheduleTask(PlayerCompanionFeatureTask task, Runnable runnable) {
+    PlayerCompanionFeatureScheduler.schedule(this, task, runnable);
+  }
+
+  protected PlayerCompanionNeighbourhood getNeighbourhood(AABB area) {
+    return PlayerCompanionNeighbourhood.get(this.playerCompanionEntity, area);
+  }
+
+  protected List<PlayerCompanionEntity> getOwnedCompanions(
+      AABB area, Predicate<? super PlayerCompanionEntity> predicate) {
+    return PlayerCompanionSpatialIndex.getOwnedCompanions(
+        this.level,
+        this.playerCompanionEntity.getOwnerUUID(),
+        area,
+        entity -> entity != this.playerCompanionEntity && predicate.test(entity));
+  }
+
+  public boolean isDormant() {
+    return this.playerCompanionEntity.isDormant();
+  }
+
   public LivingEntity getOwner() {
     return playerCompanionEntity.getOwner();
   }
@@ -133,32 +168,73 @@ public class PlayerCompanionsFeatures {
     this.flap += this.flapping * 2.0F;
   }
 
-  protected void tick() {
+  public final void tick() {
+    if (isDormant()) {
+      return;
+    }
+    boolean profiled = PlayerCompanionsProfiler.isEnabled() && !level.isClientSide;
+    if (!MetricsRegistry.isEnabled() && !profiled) {
+      featuresTick();
+      return;
+    }
+    long startTime = System.nanoTime();
+    featuresTick();
+    long time = System.nanoTime() - startTime;
+    getTickTimer().record(time);
+    if (profiled) {
+      getTickSection().record(time);
+    }
+  }
+
+  private MetricTimer getTickTimer() {
+    if (this.tickTimer == null) {
+      this.tickTimer = MetricsRegistry.getTimer("feature.tick." + getCompanionTypeName());
+    }
+    return this.tickTimer;
+  }
+
+  private ProfilerSection getTickSection() {
+    if (this.tickSection == null) {
+      this.tickSection =
+          PlayerCompanionsProfiler.getSection("feature tick [" + getCompanionTypeName() + "]");
+    }
+    return this.tickSection;
+  }
+
+  protected String getCompanionTypeName() {
+    return this.playerCompanionEntity.getCompanionType().name().toLowerCase(Locale.ROOT);
+  }
+
+  protected void featuresTick() {
     if (!level.isClientSide) {
 
       // Check if owner is near (8 blocks) to give additional bonus experience over time.
       if (this.experienceOwnerBonusTicker++ >= EXPERIENCE_OWNER_BONUS_TICKER
           && this.distributedExperience == 0) {
-        List<Player> playerEntities =
-            this.level.getEntities(
-                EntityType.PLAYER,
-                new AABB(playerCompanionEntity.blockPosition()).inflate(8),
-                entity -> true);
-        for (Player player : playerEntities) {
-          if (player == this.getOwner()) {
-            distributeExperience(1);
-            break;
-          }
-        }
+        scheduleTask(PlayerCompanionFeatureTask.OWNER_BONUS, this::ownerBonusTask);
         this.experienceOwnerBonusTicker = 0;
       }
 
       // Distribute and cap experience for network friendly updates.
       if (this.experienceDistributeTicker++ >= EXPERIENCE_TICKER) {
-        increaseExperience(this.distributedExperience);
-        this.distributedExperience = 0;
+        scheduleTask(PlayerCompanionFeatureTask.EXPERIENCE, this::experienceTask);
         this.experienceDistributeTicker = 0;
       }
     }
   }
+
+  private void ownerBonusTask() {
+    LivingEntity owner = this.getOwner();
+    AABB area = getArea(8);
+    if (owner != null
+        && this.distributedExperience == 0
+        && !getNeighbourhood(area).getPlayers(area, player -> player == owner).isEmpty()) {
+      distributeExperience(1);
+    }
+  }
+
+  private void experienceTask() {
+    increaseExperience(this.distributedExperience);
+    this.distributedExperience = 0;
+  }
 }
@@ -68,7 +68,7 @@ public class AvoidCreeperGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     if (!this.playerCompanionEntity.hasOwnerAndIsAlive()) {
       return false;
     }
@@ -123,7 +123,7 @@ public class AvoidCreeperGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
+  protected void tickGoal() {
     if (this.playerCompanionEntity.distanceToSqr(this.creeperToAvoid) < 49.0D) {
       this.playerCompanionEntity.getNavigation().setSpeedModifier(this.sprintSpeedModifier);
     } else {
@@ -41,7 +41,7 @@ public class FleeGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     if (this.playerCompanionEntity.getLastHurtByMob() == null
         || this.playerCompanionEntity.getAggressionLevel() != AggressionLevel.PASSIVE_FLEE) {
       return false;
@@ -36,7 +36,7 @@ public class LandOnOwnersShoulderGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     if (!this.playerCompanionEntity.hasOwner()) {
       return false;
     }
@@ -70,7 +70,7 @@ public class LandOnOwnersShoulderGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
+  protected void tickGoal() {
     if (!this.isSittingOnShoulder
         && !this.playerCompanionEntity.isInSittingPose()
         && !this.playerCompanionEntity.isLeashed()) {
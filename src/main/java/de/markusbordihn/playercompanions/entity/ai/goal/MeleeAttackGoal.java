@@ -53,7 +53,7 @@ public class MeleeAttackGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     long gameTime = this.playerCompanionEntity.level().getGameTime();
     if (gameTime - this.lastCanUseCheck < COOLDOWN_BETWEEN_CAN_USE_CHECKS
         || !this.playerCompanionEntity.shouldAttack()) {
@@ -124,7 +124,7 @@ public class MeleeAttackGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
+  protected void tickGoal() {
     LivingEntity livingEntity = this.playerCompanionEntity.getTarget();
     if (livingEntity != null) {
       this.playerCompanionEntity.getLookControl().setLookAt(livingEntity, 30.0F, 30.0F);
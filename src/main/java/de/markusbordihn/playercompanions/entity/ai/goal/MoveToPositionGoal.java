@@ -43,7 +43,7 @@ public class MoveToPositionGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     if (!this.playerCompanionEntity.hasOwnerAndIsAlive()) {
       return false;
     }
@@ -88,7 +88,7 @@ public class MoveToPositionGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
+  protected void tickGoal() {
     this.playerCompanionEntity
         .getLookControl()
         .setLookAt(
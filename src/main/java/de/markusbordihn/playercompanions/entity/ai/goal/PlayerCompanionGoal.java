@@ -21,6 +21,12 @@ package de.markusbordihn.playercompanions.entity.ai.goal;
 
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
+import de.markusbordihn.playercompanions.metrics.MetricCounter;
+import de.markusbordihn.playercompanions.metrics.MetricTimer;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
+import de.markusbordihn.playercompanions.metrics.PlayerCompanionsProfiler;
+import de.markusbordihn.playercompanions.metrics.ProfilerSection;
+import java.util.Locale;
 import java.util.Random;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.ai.navigation.PathNavigation;
@@ -38,14 +44,83 @@ public class PlayerCompanionGoal extends Goal {
   protected final PathNavigation navigation;
   protected final PlayerCompanionEntity playerCompanionEntity;
 
+  // Metrics for sampled canUse checks
+  private static final int CAN_USE_SAMPLE_MASK = 7;
+  private int canUseChecks = 0;
+  private MetricCounter canUseCounter;
+  private MetricTimer canUseTimer;
+
+  // Profiler sections, which are resolved on their first use.
+  private ProfilerSection canUseSection;
+  private ProfilerSection tickSection;
+
   public PlayerCompanionGoal(PlayerCompanionEntity playerCompanionEntity) {
     this.playerCompanionEntity = playerCompanionEntity;
     this.level = this.playerCompanionEntity.level();
     this.navigation = this.playerCompanionEntity.getNavigation();
   }
 
+  /**
+   * Checks if the goal could be used. Only every n-th check is timed to keep the overhead of the
+   * metrics low, because this is called for every goal and companion each tick. While the profiler
+   * is active, every check is timed.
+   */
   @Override
-  public boolean canUse() {
+  public final boolean canUse() {
+    boolean sampled =
+        MetricsRegistry.isEnabled() && (this.canUseChecks++ & CAN_USE_SAMPLE_MASK) == 0;
+    boolean profiled = PlayerCompanionsProfiler.isEnabled();
+    if (!sampled && !profiled) {
+      return canUseGoal();
+    }
+    long startTime = System.nanoTime();
+    boolean result = canUseGoal();
+    long time = System.nanoTime() - startTime;
+    if (sampled) {
+      if (this.canUseTimer == null) {
+        String metricName = "goal.canUse." + this.getClass().getSimpleName();
+        this.canUseTimer = MetricsRegistry.getTimer(metricName);
+        this.canUseCounter = MetricsRegistry.getCounter(metricName + ".calls");
+      }
+      this.canUseCounter.add(CAN_USE_SAMPLE_MASK + 1L);
+      this.canUseTimer.record(time);
+    }
+    if (profiled) {
+      if (this.canUseSection == null) {
+        this.canUseSection = PlayerCompanionsProfiler.getSection(getProfilerSectionName("canUse"));
+      }
+      this.canUseSection.record(time);
+    }
+    return result;
+  }
+
+  protected boolean canUseGoal() {
     return playerCompanionEntity.hasOwnerAndIsAlive();
   }
+
+  @Override
+  public final void tick() {
+    if (!PlayerCompanionsProfiler.isEnabled()) {
+      tickGoal();
+      return;
+    }
+    long startTime = System.nanoTime();
+    tickGoal();
+    if (this.tickSection == null) {
+      this.tickSection = PlayerCompanionsProfiler.getSection(getProfilerSectionName("tick"));
+    }
+    this.tickSection.record(System.nanoTime() - startTime);
+  }
+
+  protected void tickGoal() {
+    // Placeholder function
+  }
+
+  private String getProfilerSectionName(String method) {
+    return String.format(
+        "goal %s.%s [%s]",
+        this.getClass().getSimpleName(),
+        method,
+        this.playerCompanionEntity.getCompanionType().name().toLowerCase(Locale.ROOT));
+  }
 }
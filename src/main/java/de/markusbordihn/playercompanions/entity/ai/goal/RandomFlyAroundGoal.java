@@ -32,7 +32,7 @@ public class RandomFlyAroundGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     if (!this.playerCompanionEntity.hasOwnerAndIsAlive()
         || this.playerCompanionEntity.isOrderedToSit()
         || this.playerCompanionEntity.isOrderedToPosition()) {
@@ -47,7 +47,7 @@ public class RandomFlyAroundGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
+  protected void tickGoal() {
     BlockPos blockPos = this.playerCompanionEntity.ownerBlockPosition();
     for (int i = 0; i < 3; ++i) {
       BlockPos randomBlockPos =
@@ -36,7 +36,7 @@ public class ShootLargeFireballGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     return this.playerCompanionEntity.shouldAttack() && this.playerCompanionEntity.canAttack();
   }
 
@@ -56,8 +56,8 @@ public class ShootLargeFireballGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
-    super.tick();
+  protected void tickGoal() {
+    super.tickGoal();
 
     LivingEntity livingEntity = this.playerCompanionEntity.getTarget();
     if (livingEntity != null && livingEntity.isAlive()) {
@@ -34,7 +34,7 @@ public class ShootSmallFireballGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     return this.playerCompanionEntity.shouldAttack() && this.playerCompanionEntity.canAttack();
   }
 
@@ -54,8 +54,8 @@ public class ShootSmallFireballGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
-    super.tick();
+  protected void tickGoal() {
+    super.tickGoal();
 
     LivingEntity livingEntity = this.playerCompanionEntity.getTarget();
     if (livingEntity != null && livingEntity.isAlive()) {
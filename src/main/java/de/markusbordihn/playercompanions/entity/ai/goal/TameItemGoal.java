@@ -57,7 +57,7 @@ public class TameItemGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public boolean canUse() {
+  protected boolean canUseGoal() {
     if (!this.playerCompanionEntity.isTamable()) {
       return false;
     } else if (this.calmDown > 0) {
@@ -93,7 +93,7 @@ public class TameItemGoal extends PlayerCompanionGoal {
       this.pRotY = nearestPlayer.getYRot();
     }
 
-    return this.canUse();
+    return this.canUseGoal();
   }
 
   protected boolean canScare() {
@@ -120,7 +120,7 @@ public class TameItemGoal extends PlayerCompanionGoal {
   }
 
   @Override
-  public void tick() {
+  protected void tickGoal() {
     this.playerCompanionEntity
         .getLookControl()
         .setLookAt(
@@ -23,10 +23,10 @@ import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.config.CommonConfig;
 import de.markusbordihn.playercompanions.data.PlayerCompanionData;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
+import de.markusbordihn.playercompanions.entity.PlayerCompanionFeatureTask;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionsFeatures;
 import java.util.List;
 import net.minecraft.world.entity.Entity.RemovalReason;
-import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
@@ -62,36 +62,36 @@ public class CollectorFeatures extends PlayerCompanionsFeatures {
     if (!this.level.isClientSide
         && COMMON.collectorTypeRadius.get() > 0
         && ticker++ >= COLLECT_TICK) {
-      List<ItemEntity> itemEntities =
-          this.level.getEntities(
-              EntityType.ITEM,
-              new AABB(playerCompanionEntity.blockPosition())
-                  .inflate(COMMON.collectorTypeRadius.get()),
-              entity -> true);
-      if (!itemEntities.isEmpty()) {
-        PlayerCompanionData companionData = playerCompanionEntity.getData();
-        if (companionData != null) {
-          boolean hasCollectSomething = false;
-          for (ItemEntity itemEntity : itemEntities) {
-            if (itemEntity.isAlive() && companionData.storeInventoryItem(itemEntity.getItem())) {
-              itemEntity.remove(RemovalReason.DISCARDED);
-              hasCollectSomething = true;
-            }
-          }
+      scheduleTask(PlayerCompanionFeatureTask.COLLECT, this::collectTask);
+      ticker = 0;
+    }
+  }
 
-          // Increase experience, if we collected something (server-side).
-          if (hasCollectSomething) {
-            distributeExperience(1);
+  private void collectTask() {
+    AABB area = getArea(COMMON.collectorTypeRadius.get());
+    List<ItemEntity> itemEntities = getNeighbourhood(area).getItemEntities(area, entity -> true);
+    if (!itemEntities.isEmpty()) {
+      PlayerCompanionData companionData = playerCompanionEntity.getData();
+      if (companionData != null) {
+        boolean hasCollectSomething = false;
+        for (ItemEntity itemEntity : itemEntities) {
+          if (itemEntity.isAlive() && companionData.storeInventoryItem(itemEntity.getItem())) {
+            itemEntity.remove(RemovalReason.DISCARDED);
+            hasCollectSomething = true;
           }
         }
+
+        // Increase experience, if we collected something (server-side).
+        if (hasCollectSomething) {
+          distributeExperience(1);
+        }
       }
-      ticker = 0;
     }
   }
 
   @Override
-  public void tick() {
-    super.tick();
+  protected void featuresTick() {
+    super.featuresTick();
     collectorTick();
   }
 }
@@ -38,8 +38,8 @@ public class FollowerFeatures extends PlayerCompanionsFeatures {
   }
 
   @Override
-  public void tick() {
-    super.tick();
+  protected void featuresTick() {
+    super.featuresTick();
     followerTick();
   }
 }
@@ -46,8 +46,8 @@ public class GuardFeatures extends PlayerCompanionsFeatures {
   }
 
   @Override
-  public void tick() {
-    super.tick();
+  protected void featuresTick() {
+    super.featuresTick();
     guardTick();
   }
 }
@@ -21,11 +21,12 @@ package de.markusbordihn.playercompanions.entity.type.healer;
 
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.config.CommonConfig;
+import de.markusbordihn.playercompanions.data.ExperienceScaling;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
+import de.markusbordihn.playercompanions.entity.PlayerCompanionFeatureTask;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionsFeatures;
 import java.util.List;
 import net.minecraft.core.particles.ParticleTypes;
-import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.TamableAnimal;
 import net.minecraft.world.entity.player.Player;
@@ -43,6 +44,8 @@ public class HealerFeatures extends PlayerCompanionsFeatures {
   private static final short HEALER_TICK = 20 * 2;
   private static final int PARTICLE_FRAMES = 3;
 
+  private ExperienceScaling healingScaling;
+
   protected HealerFeatures(PlayerCompanionEntity playerCompanionEntity, Level level) {
     super(playerCompanionEntity, level);
   }
@@ -67,57 +70,59 @@ public class HealerFeatures extends PlayerCompanionsFeatures {
 
     // Automatic heal entities in the defined radius.
     if (COMMON.healerTypeRadius.get() > 0 && ticker++ >= HEALER_TICK) {
-      boolean hasHealthSomething = this.getOwner() != null && healEntity(level, this.getOwner());
+      scheduleTask(PlayerCompanionFeatureTask.HEAL, this::healTask);
+      ticker = 0;
+    }
+  }
 
-      // 1. Priority: Heal owner
+  private void healTask() {
+    boolean hasHealthSomething = this.getOwner() != null && healEntity(level, this.getOwner());
 
-      // 2. Priority: Heal self
-      if (!hasHealthSomething && healEntity(level, this.playerCompanionEntity)) {
-        hasHealthSomething = true;
-      }
+    // 1. Priority: Heal owner
+
+    // 2. Priority: Heal self
+    if (!hasHealthSomething && healEntity(level, this.playerCompanionEntity)) {
+      hasHealthSomething = true;
+    }
 
-      // 3. Priority: Heal other players in radius.
-      if (!hasHealthSomething) {
-        List<Player> playerEntities =
-            this.level.getEntities(
-                EntityType.PLAYER,
-                new AABB(playerCompanionEntity.blockPosition())
-                    .inflate(COMMON.healerTypeRadius.get()),
-                entity -> true);
-        for (Player player : playerEntities) {
-          if (player != this.getOwner() && healEntity(level, player)) {
-            hasHealthSomething = true;
-            break;
-          }
+    // 3. Priority: Heal other players in radius.
+    AABB area = getArea(COMMON.healerTypeRadius.get());
+    if (!hasHealthSomething) {
+      List<Player> playerEntities = getNeighbourhood(area).getPlayers(area, entity -> true);
+      for (Player player : playerEntities) {
+        if (player != this.getOwner() && healEntity(level, player)) {
+          hasHealthSomething = true;
+          break;
         }
       }
+    }
 
-      // 4. Priority: Heal owned tamed animals regardless of type.
-      if (!hasHealthSomething && this.getOwner() != null) {
-        List<TamableAnimal> tamableAnimals =
-            playerCompanionEntity
-                .level()
-                .getEntitiesOfClass(
-                    TamableAnimal.class,
-                    new AABB(playerCompanionEntity.blockPosition())
-                        .inflate(COMMON.healerTypeRadius.get()),
-                    entity -> true);
-        for (TamableAnimal tamableAnimal : tamableAnimals) {
-          if (tamableAnimal != this.playerCompanionEntity
-              && tamableAnimal.getOwner() == this.getOwner()
-              && healEntity(level, tamableAnimal)) {
-            hasHealthSomething = true;
-            break;
-          }
+    // 4. Priority: Heal owned player companions regardless of type.
+    if (!hasHealthSomething && this.getOwner() != null) {
+      for (PlayerCompanionEntity playerCompanion : getOwnedCompanions(area, entity -> true)) {
+        if (healEntity(level, playerCompanion)) {
+          hasHealthSomething = true;
+          break;
         }
       }
+    }
 
-      // Increase experience if we have health something (server-side)
-      if (hasHealthSomething && !level.isClientSide) {
-        distributeExperience(1);
+    // 5. Priority: Heal other owned tamed animals.
+    if (!hasHealthSomething && this.getOwner() != null) {
+      List<TamableAnimal> tamableAnimals =
+          getNeighbourhood(area)
+              .getTamableAnimals(area, entity -> !(entity instanceof PlayerCompanionEntity));
+      for (TamableAnimal tamableAnimal : tamableAnimals) {
+        if (tamableAnimal.getOwner() == this.getOwner() && healEntity(level, tamableAnimal)) {
+          hasHealthSomething = true;
+          break;
+        }
       }
+    }
 
-      ticker = 0;
+    // Increase experience if we have health something (server-side)
+    if (hasHealthSomething && !level.isClientSide) {
+      distributeExperience(1);
     }
   }
 
@@ -129,12 +134,15 @@ public class HealerFeatures extends PlayerCompanionsFeatures {
     if (level.isClientSide) {
       healAnimation(livingEntity, level);
     } else {
-      int healingAmount =
-          playerCompanionEntity.getHealingAmountFromExperienceLevel(
-              getExperienceLevel(),
-              COMMON.healerTypeMinAmount.get(),
-              COMMON.healerTypeMaxAmount.get());
-      livingEntity.heal(healingAmount);
+      int minHealing = COMMON.healerTypeMinAmount.get();
+      int maxHealing = COMMON.healerTypeMaxAmount.get();
+      if (this.healingScaling == null || !this.healingScaling.is(maxHealing, minHealing)) {
+        this.healingScaling = ExperienceScaling.get(maxHealing, minHealing);
+      }
+      livingEntity.heal(
+          minHealing < maxHealing
+              ? minHealing + this.healingScaling.getAdjustment(getExperienceLevel())
+              : minHealing);
       return true;
     }
     return false;
@@ -178,8 +186,8 @@ public class HealerFeatures extends PlayerCompanionsFeatures {
   }
 
   @Override
-  public void tick() {
-    super.tick();
+  protected void featuresTick() {
+    super.featuresTick();
     healerTick();
   }
 }
@@ -22,12 +22,12 @@ package de.markusbordihn.playercompanions.entity.type.supporter;
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.config.CommonConfig;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
+import de.markusbordihn.playercompanions.entity.PlayerCompanionFeatureTask;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionsFeatures;
 import de.markusbordihn.playercompanions.entity.type.PlayerCompanionType;
 import java.util.List;
 import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.effect.MobEffects;
-import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.TamableAnimal;
 import net.minecraft.world.entity.player.Player;
@@ -64,78 +64,72 @@ public class SupporterFeatures extends PlayerCompanionsFeatures {
 
     // Automatic buff entities in the defined radius.
     if (!level.isClientSide && COMMON.supporterTypeRadius.get() > 0 && ticker++ >= SUPPORTER_TICK) {
-      boolean hasBuffSomething = this.getOwner() != null && buffLivingEntity(this.getOwner());
+      scheduleTask(PlayerCompanionFeatureTask.BUFF, this::buffTask);
+      ticker = 0;
+    }
+  }
 
-      // 1. Priority: Buff owner.
+  private void buffTask() {
+    boolean hasBuffSomething = this.getOwner() != null && buffLivingEntity(this.getOwner());
 
-      // 2. Priority: Buff self.
-      if (!hasBuffSomething && buffLivingEntity(this.playerCompanionEntity)) {
-        hasBuffSomething = true;
-      }
+    // 1. Priority: Buff owner.
+
+    // 2. Priority: Buff self.
+    if (!hasBuffSomething && buffLivingEntity(this.playerCompanionEntity)) {
+      hasBuffSomething = true;
+    }
 
-      // 3. Priority: Buff other players in radius.
-      if (!hasBuffSomething) {
-        List<Player> playerEntities =
-            this.level.getEntities(
-                EntityType.PLAYER,
-                new AABB(playerCompanionEntity.blockPosition())
-                    .inflate(COMMON.supporterTypeRadius.get()),
-                entity -> true);
-        for (Player player : playerEntities) {
-          if (player != this.getOwner() && buffLivingEntity(player)) {
-            hasBuffSomething = true;
-            break;
-          }
+    // 3. Priority: Buff other players in radius.
+    AABB area = getArea(COMMON.supporterTypeRadius.get());
+    if (!hasBuffSomething) {
+      List<Player> playerEntities = getNeighbourhood(area).getPlayers(area, entity -> true);
+      for (Player player : playerEntities) {
+        if (player != this.getOwner() && buffLivingEntity(player)) {
+          hasBuffSomething = true;
+          break;
         }
       }
+    }
 
-      // 4. Priority: Buff owned healer.
-      if (!hasBuffSomething && this.getOwner() != null) {
-        List<PlayerCompanionEntity> playerCompanions =
-            playerCompanionEntity
-                .level()
-                .getEntitiesOfClass(
-                    PlayerCompanionEntity.class,
-                    new AABB(playerCompanionEntity.blockPosition())
-                        .inflate(COMMON.supporterTypeRadius.get()),
-                    entity -> true);
-        for (PlayerCompanionEntity playerCompanion : playerCompanions) {
-          if (playerCompanion != this.playerCompanionEntity
-              && playerCompanion.getCompanionType() == PlayerCompanionType.HEALER
-              && playerCompanion.getOwner() == this.getOwner()
-              && buffLivingEntity(playerCompanion)) {
-            hasBuffSomething = true;
-            break;
-          }
+    // 4. Priority: Buff owned healer.
+    if (!hasBuffSomething && this.getOwner() != null) {
+      List<PlayerCompanionEntity> playerCompanions =
+          getOwnedCompanions(
+              area, entity -> entity.getCompanionType() == PlayerCompanionType.HEALER);
+      for (PlayerCompanionEntity playerCompanion : playerCompanions) {
+        if (buffLivingEntity(playerCompanion)) {
+          hasBuffSomething = true;
+          break;
         }
       }
+    }
 
-      // 5. Priority: Buff owned tamed animals regardless of type.
-      if (!hasBuffSomething && this.getOwner() != null) {
-        List<TamableAnimal> tamableAnimals =
-            playerCompanionEntity
-                .level()
-                .getEntitiesOfClass(
-                    TamableAnimal.class,
-                    new AABB(playerCompanionEntity.blockPosition())
-                        .inflate(COMMON.supporterTypeRadius.get()),
-                    entity -> true);
-        for (TamableAnimal tamableAnimal : tamableAnimals) {
-          if (tamableAnimal != this.playerCompanionEntity
-              && tamableAnimal.getOwner() == this.getOwner()
-              && buffLivingEntity(tamableAnimal)) {
-            hasBuffSomething = true;
-            break;
-          }
+    // 5. Priority: Buff owned player companions regardless of type.
+    if (!hasBuffSomething && this.getOwner() != null) {
+      for (PlayerCompanionEntity playerCompanion : getOwnedCompanions(area, entity -> true)) {
+        if (buffLivingEntity(playerCompanion)) {
+          hasBuffSomething = true;
+          break;
         }
       }
+    }
 
-      // Increase experience if we have buff something (server-side)
-      if (hasBuffSomething) {
-        distributeExperience(1);
+    // 6. Priority: Buff other owned tamed animals.
+    if (!hasBuffSomething && this.getOwner() != null) {
+      List<TamableAnimal> tamableAnimals =
+          getNeighbourhood(area)
+              .getTamableAnimals(area, entity -> !(entity instanceof PlayerCompanionEntity));
+      for (TamableAnimal tamableAnimal : tamableAnimals) {
+        if (tamableAnimal.getOwner() == this.getOwner() && buffLivingEntity(tamableAnimal)) {
+          hasBuffSomething = true;
+          break;
+        }
       }
+    }
 
-      ticker = 0;
+    // Increase experience if we have buff something (server-side)
+    if (hasBuffSomething) {
+      distributeExperience(1);
     }
   }
 
@@ -224,8 +218,8 @@ public class SupporterFeatures extends PlayerCompanionsFeatures {
   }
 
   @Override
-  public void tick() {
-    super.tick();
+  protected void featuresTick() {
+    super.featuresTick();
     supporterTick();
   }
 }
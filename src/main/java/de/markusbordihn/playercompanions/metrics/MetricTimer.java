@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing histogram with fixed power of two buckets in microseconds, so that recording a value
+ * never allocates. Percentiles are approximated by the upper bound of the matching bucket.
+ */
+public class MetricTimer {
+
+  // Bucket 0 is below 1 µs and the last bucket includes everything above 2^22 µs (~4 s).
+  private static final int BUCKETS = 24;
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalTime = new LongAdder();
+  private final AtomicLong maxTime = new AtomicLong();
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+  public MetricTimer() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets[i] = new LongAdder();
+    }
+  }
+
+  private static int getBucket(long time) {
+    long micros = time / 1000L;
+    return micros <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  private static long getBucketUpperBound(int bucket) {
+    return (1L << bucket) * 1000L;
+  }
+
+  /** Records the given time in nanoseconds. */
+  public void record(long time) {
+    if (!MetricsRegistry.isEnabled()) {
+      return;
+    }
+    this.count.increment();
+    this.totalTime.add(time);
+    this.buckets[getBucket(time)].increment();
+    if (time > this.maxTime.get()) {
+      this.maxTime.accumulateAndGet(time, Math::max);
+    }
+  }
+
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  public long getTotalTime() {
+    return this.totalTime.sum();
+  }
+
+  public long getMaxTime() {
+    return this.maxTime.get();
+  }
+
+  public long getAverageTime() {
+    long numberOfRecords = getCount();
+    return numberOfRecords > 0 ? getTotalTime() / numberOfRecords : 0;
+  }
+
+  /** Returns the approximated time in nanoseconds for the given percentile between 0 and 1. */
+  public long getPercentile(double percentile) {
+    long numberOfRecords = getCount();
+    if (numberOfRecords == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(numberOfRecords * percentile);
+    long records = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      records += this.buckets[i].sum();
+      if (records >= threshold) {
+        return Math.min(getBucketUpperBound(i), getMaxTime());
+      }
+    }
+    return getMaxTime();
+  }
+
+  public void reset() {
+    this.count.reset();
+    this.totalTime.reset();
+    this.maxTime.set(0);
+    for (LongAdder bucket : this.buckets) {
+      bucket.reset();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry for the runtime metrics of the companion subsystems. Metrics should be looked up once
+ * and kept as reference, so that updating them is only a cheap counter increment.
+ */
+public class MetricsRegistry {
+
+  private static final Map<String, MetricCounter> counterMap = new ConcurrentHashMap<>();
+  private static final Map<String, MetricTimer> timerMap = new ConcurrentHashMap<>();
+  private static final Map<String, LongSupplier> gaugeMap = new ConcurrentHashMap<>();
+  private static boolean enabled = true;
+
+  protected MetricsRegistry() {}
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static void setEnabled(boolean enabled) {
+    MetricsRegistry.enabled = enabled;
+  }
+
+  public static MetricCounter getCounter(String name) {
+    return counterMap.computeIfAbsent(name, key -> new MetricCounter());
+  }
+
+  public static MetricTimer getTimer(String name) {
+    return timerMap.computeIfAbsent(name, key -> new MetricTimer());
+  }
+
+  /** Registers a gauge, which reads its current value on demand. */
+  public static void registerGauge(String name, LongSupplier supplier) {
+    gaugeMap.put(name, supplier);
+  }
+
+  public static void reset() {
+    counterMap.values().forEach(MetricCounter::reset);
+    timerMap.values().forEach(MetricTimer::reset);
+  }
+
+  /** Returns a sorted report of all metrics, which names are starting with the given prefix. */
+  public static List<String> getReport(String prefix) {
+    Map<String, String> reportMap = new TreeMap<>();
+    for (Map.Entry<String, LongSupplier> gauge : gaugeMap.entrySet()) {
+      if (gauge.getKey().startsWith(prefix)) {
+        reportMap.put(gauge.getKey(), String.valueOf(gauge.getValue().getAsLong()));
+      }
+    }
+    for (Map.Entry<String, MetricCounter> counter : counterMap.entrySet()) {
+      if (counter.getKey().startsWith(prefix)) {
+        reportMap.put(counter.getKey(), String.valueOf(counter.getValue().get()));
+      }
+    }
+    for (Map.Entry<String, MetricTimer> timer : timerMap.entrySet()) {
+      MetricTimer metricTimer = timer.getValue();
+      if (timer.getKey().startsWith(prefix) && metricTimer.getCount() > 0) {
+        reportMap.put(
+            timer.getKey(),
+            String.format(
+                "count=%d avg=%s p50=%s p99=%s max=%s total=%s",
+                metricTimer.getCount(),
+                formatTime(metricTimer.getAverageTime()),
+                formatTime(metricTimer.getPercentile(0.5)),
+                formatTime(metricTimer.getPercentile(0.99)),
+                formatTime(metricTimer.getMaxTime()),
+                formatTime(metricTimer.getTotalTime())));
+      }
+    }
+    List<String> report = new ArrayList<>(reportMap.size());
+    for (Map.Entry<String, String> entry : reportMap.entrySet()) {
+      report.add(entry.getKey() + ": " + entry.getValue());
+    }
+    return report;
+  }
+
+  public static String formatTime(long time) {
+    if (time >= 1000000000L) {
+      return String.format("%.2fs", time / 1000000000.0);
+    } else if (time >= 1000000L) {
+      return String.format("%.2fms", time / 1000000.0);
+    }
+    return String.format("%.1fµs", time / 1000.0);
+  }
+}
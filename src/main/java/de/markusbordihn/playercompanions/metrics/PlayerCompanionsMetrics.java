@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.metrics;
+
+import de.markusbordihn.playercompanions.Constants;
+import de.markusbordihn.playercompanions.config.CommonConfig;
+import de.markusbordihn.playercompanions.data.PlayerCompanionManager;
+import de.markusbordihn.playercompanions.data.PlayerCompanionsServerData;
+import de.markusbordihn.playercompanions.entity.PlayerCompanionFeatureScheduler;
+import de.markusbordihn.playercompanions.entity.PlayerCompanionSpatialIndex;
+import de.markusbordihn.playercompanions.network.NetworkHandler;
+import de.markusbordihn.playercompanions.utils.PlayersUtils;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/** Registers the server side gauges and writes the metrics to a file in the configured interval. */
+@EventBusSubscriber
+public class PlayerCompanionsMetrics {
+
+  public static final String METRICS_FILE_NAME = "metrics.txt";
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  private static final CommonConfig.Config COMMON = CommonConfig.COMMON;
+  private static final int DUMP_CHECK_TICK = 20;
+  private static long nextDumpTime = 0;
+  private static int ticker = 0;
+
+  protected PlayerCompanionsMetrics() {}
+
+  @SubscribeEvent
+  public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
+    MetricsRegistry.setEnabled(COMMON.metricsEnabled.get());
+    MetricsRegistry.reset();
+    registerGauges();
+    nextDumpTime = getNextDumpTime();
+    if (nextDumpTime > 0) {
+      log.info(
+          "{} Writing metrics every {} minutes to {} ...",
+          Constants.LOG_ICON_NAME,
+          COMMON.metricsDumpInterval.get(),
+          METRICS_FILE_NAME);
+    }
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (event.phase != TickEvent.Phase.END || nextDumpTime <= 0 || ticker++ < DUMP_CHECK_TICK) {
+      return;
+    }
+    ticker = 0;
+    if (System.currentTimeMillis() >= nextDumpTime) {
+      dump(event.getServer());
+      nextDumpTime = getNextDumpTime();
+    }
+  }
+
+  private static long getNextDumpTime() {
+    int dumpInterval = COMMON.metricsDumpInterval.get();
+    return dumpInterval > 0 ? System.currentTimeMillis() + dumpInterval * 60000L : 0;
+  }
+
+  private static void registerGauges() {
+    MetricsRegistry.registerGauge(
+        "data.companions",
+        () ->
+            PlayerCompanionsServerData.available()
+                ? PlayerCompanionsServerData.get().getCompanions().size()
+                : 0);
+    MetricsRegistry.registerGauge(
+        "data.save.last.rewritten", PlayerCompanionsServerData::getLastSaveRewrittenEntries);
+    MetricsRegistry.registerGauge(
+        "data.save.last.reused", PlayerCompanionsServerData::getLastSaveReusedEntries);
+    MetricsRegistry.registerGauge("data.update.queued", PlayerCompanionManager::getQueuedUpdates);
+    MetricsRegistry.registerGauge(
+        "data.update.last.deferred", PlayerCompanionManager::getLastDeferredUpdates);
+    MetricsRegistry.registerGauge(
+        "feature.task.queued", PlayerCompanionFeatureScheduler::getQueuedTasks);
+    MetricsRegistry.registerGauge(
+        "feature.task.last.deferred", PlayerCompanionFeatureScheduler::getLastDeferredTasks);
+    MetricsRegistry.registerGauge(
+        "feature.task.last.lateness", PlayerCompanionFeatureScheduler::getLastMaxLateness);
+    MetricsRegistry.registerGauge("network.cache.hits", NetworkHandler::getDataPackageCacheHits);
+    MetricsRegistry.registerGauge(
+        "network.cache.misses", NetworkHandler::getDataPackageCacheMisses);
+    MetricsRegistry.registerGauge(
+        "spatial.companions", PlayerCompanionSpatialIndex::getNumberOfIndexedCompanions);
+    MetricsRegistry.registerGauge(
+        "spatial.players", PlayerCompanionSpatialIndex::getNumberOfIndexedPlayers);
+    MetricsRegistry.registerGauge(
+        "user.lookup.pending", PlayersUtils::getNumberOfPendingUserUUIDRequests);
+  }
+
+  public static File getMetricsFile(MinecraftServer server) {
+    return new File(
+        new File(server.getWorldPath(LevelResource.ROOT).toFile(), Constants.MOD_ID),
+        METRICS_FILE_NAME);
+  }
+
+  /** Writes a snapshot of the current metrics in the background. */
+  public static File dump(MinecraftServer server) {
+    File file = getMetricsFile(server);
+    List<String> lines = new ArrayList<>();
+    lines.add("# " + Constants.MOD_NAME + " metrics from " + Instant.now());
+    lines.addAll(MetricsRegistry.getReport(""));
+    Util.ioPool()
+        .execute(
+            () -> {
+              File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+              try {
+                Files.createDirectories(file.getParentFile().toPath());
+                Files.write(tempFile.toPath(), lines, StandardCharsets.UTF_8);
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+              } catch (IOException exception) {
+                log.error(
+                    "{} failed to write metrics to {}: {}",
+                    Constants.LOG_ICON_NAME,
+                    file,
+                    exception);
+              }
+            });
+    return file;
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.metrics;
+
+import de.markusbordihn.playercompanions.Constants;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Opt-in profiler for the companion goals and features. While active, the wall time and number of
+ * calls of every profiled section is recorded, to find the goals and companion types which are
+ * responsible for a high tick time. The profiler is only active for a limited time and disables
+ * itself afterwards.
+ */
+@EventBusSubscriber
+public class PlayerCompanionsProfiler {
+
+  public static final int MAX_DURATION = 600;
+  protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
+  private static final int LOG_TOP_SECTIONS = 10;
+
+  private static final Map<String, ProfilerSection> sectionMap = new ConcurrentHashMap<>();
+  private static volatile boolean enabled = false;
+  private static long endTime = 0;
+  private static long startTime = 0;
+  private static long stopTime = 0;
+  private static long ticks = 0;
+
+  protected PlayerCompanionsProfiler() {}
+
+  @SubscribeEvent
+  public static void handleServerAboutToStartEvent(ServerAboutToStartEvent event) {
+    enabled = false;
+    reset();
+  }
+
+  @SubscribeEvent
+  public static void handleServerTickEvent(TickEvent.ServerTickEvent event) {
+    if (!enabled || event.phase != TickEvent.Phase.END) {
+      return;
+    }
+    ticks++;
+    if (System.currentTimeMillis() >= endTime) {
+      stop();
+      for (String line : getReport(LOG_TOP_SECTIONS)) {
+        log.info("{} {}", Constants.LOG_ICON_NAME, line);
+      }
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Starts a new profiling run for the given number of seconds. */
+  public static void start(int duration) {
+    int profileDuration = Math.min(Math.max(duration, 1), MAX_DURATION);
+    reset();
+    startTime = System.currentTimeMillis();
+    endTime = startTime + profileDuration * 1000L;
+    enabled = true;
+    log.info(
+        "{} Profiling companions for {} seconds ...", Constants.LOG_ICON_NAME, profileDuration);
+  }
+
+  public static void stop() {
+    if (enabled) {
+      enabled = false;
+      stopTime = System.currentTimeMillis();
+      log.info(
+          "{} Profiled companions for {} ticks in {} ms.",
+          Constants.LOG_ICON_NAME,
+          ticks,
+          stopTime - startTime);
+    }
+  }
+
+  private static void reset() {
+    sectionMap.values().forEach(ProfilerSection::reset);
+    ticks = 0;
+    startTime = 0;
+    stopTime = 0;
+  }
+
+  /**
+   * Returns the section for the given name. Sections are kept between profiling runs, so callers
+   * should look them up once and keep them as reference.
+   */
+  public static ProfilerSection getSection(String name) {
+    return sectionMap.computeIfAbsent(name, ProfilerSection::new);
+  }
+
+  public static long getTicks() {
+    return ticks;
+  }
+
+  public static long getRemainingTime() {
+    return enabled ? Math.max(endTime - System.currentTimeMillis(), 0) : 0;
+  }
+
+  public static long getProfiledTime() {
+    if (startTime == 0) {
+      return 0;
+    }
+    return (enabled ? System.currentTimeMillis() : stopTime) - startTime;
+  }
+
+  /** Returns the sections with the highest total time first. */
+  public static List<ProfilerSection> getTopSections(int limit) {
+    List<ProfilerSection> sections = new ArrayList<>();
+    for (ProfilerSection section : sectionMap.values()) {
+      if (section.getCalls() > 0) {
+        sections.add(section);
+      }
+    }
+    sections.sort(Comparator.comparingLong(ProfilerSection::getTotalTime).reversed());
+    return sections.size() > limit ? sections.subList(0, limit) : sections;
+  }
+
+  public static List<String> getReport(int limit) {
+    List<ProfilerSection> sections = getTopSections(Integer.MAX_VALUE);
+    long profiledTime = 0;
+    for (ProfilerSection section : sections) {
+      profiledTime += section.getTotalTime();
+    }
+    List<String> report = new ArrayList<>();
+    report.add(
+        String.format(
+            "Profiled %s in %s ticks (%s ms), %s per tick",
+            MetricsRegistry.formatTime(profiledTime),
+            ticks,
+            getProfiledTime(),
+            MetricsRegistry.formatTime(ticks > 0 ? profiledTime / ticks : 0)));
+    int rank = 1;
+    for (ProfilerSection section : sections.subList(0, Math.min(limit, sections.size()))) {
+      report.add(
+          String.format(
+              "%d. %s: %.1f%% %s/tick calls=%d avg=%s max=%s",
+              rank++,
+              section.getName(),
+              profiledTime > 0 ? section.getTotalTime() * 100.0 / profiledTime : 0,
+              MetricsRegistry.formatTime(ticks > 0 ? section.getTotalTime() / ticks : 0),
+              section.getCalls(),
+              MetricsRegistry.formatTime(section.getAverageTime()),
+              MetricsRegistry.formatTime(section.getMaxTime())));
+    }
+    return report;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Wall time and number of calls of a single profiled code section. */
+public class ProfilerSection {
+
+  private final String name;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder totalTime = new LongAdder();
+  private final AtomicLong maxTime = new AtomicLong();
+
+  public ProfilerSection(String name) {
+    this.name = name;
+  }
+
+  public void record(long time) {
+    this.calls.increment();
+    this.totalTime.add(time);
+    if (time > this.maxTime.get()) {
+      this.maxTime.accumulateAndGet(time, Math::max);
+    }
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public long getCalls() {
+    return this.calls.sum();
+  }
+
+  public long getTotalTime() {
+    return this.totalTime.sum();
+  }
+
+  public long getMaxTime() {
+    return this.maxTime.get();
+  }
+
+  public long getAverageTime() {
+    long numberOfCalls = getCalls();
+    return numberOfCalls > 0 ? getTotalTime() / numberOfCalls : 0;
+  }
+
+  public void reset() {
+    this.calls.reset();
+    this.totalTime.reset();
+    this.maxTime.set(0);
+  }
+}
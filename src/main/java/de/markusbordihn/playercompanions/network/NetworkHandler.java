@@ -21,14 +21,22 @@ package de.markusbordihn.playercompanions.network;
 
 import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionCommand;
+import de.markusbordihn.playercompanions.metrics.MetricCounter;
+import de.markusbordihn.playercompanions.metrics.MetricsRegistry;
 import de.markusbordihn.playercompanions.network.message.MessageCommandPlayerCompanion;
 import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionData;
 import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionsData;
+import de.markusbordihn.playercompanions.network.message.MessagePlayerCompanionsDataUpdate;
 import de.markusbordihn.playercompanions.network.message.MessageSkinChange;
 import de.markusbordihn.playercompanions.skin.SkinType;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
@@ -49,7 +57,7 @@ public class NetworkHandler {
 
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
 
-  private static final String PROTOCOL_VERSION = "4";
+  private static final String PROTOCOL_VERSION = "5";
   public static final SimpleChannel INSTANCE =
       NetworkRegistry.newSimpleChannel(
           new ResourceLocation(Constants.MOD_ID, "network"),
@@ -58,9 +66,17 @@ public class NetworkHandler {
           PROTOCOL_VERSION::equals);
   private static final ConcurrentHashMap<UUID, ServerPlayer> serverPlayerMap =
       new ConcurrentHashMap<>();
+  // Player companions per owner, which are known by the client and could be updated with deltas.
+  private static final ConcurrentHashMap<UUID, Set<UUID>> syncedPlayerCompanionsMap =
+      new ConcurrentHashMap<>();
+  // Data versions of the last sent data per owner and player companion to skip unchanged data.
+  private static final ConcurrentHashMap<UUID, ConcurrentHashMap<UUID, Integer>>
+      lastCompanionDataPackageMap = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<UUID, Map<UUID, Integer>> lastCompanionsDataPackageMap =
+      new ConcurrentHashMap<>();
+  private static final AtomicLong dataPackageCacheHits = new AtomicLong();
+  private static final AtomicLong dataPackageCacheMisses = new AtomicLong();
   private static int id = 0;
-  private static CompoundTag lastCompanionDataPackage;
-  private static CompoundTag lastCompanionsDataPackage;
 
   protected NetworkHandler() {}
 
@@ -71,6 +87,7 @@ public class NetworkHandler {
 
   @SubscribeEvent(priority = EventPriority.HIGHEST)
   public static void handlePlayerLoggedInEvent(PlayerEvent.PlayerLoggedInEvent event) {
+    clearPlayerCompanionsSyncCache(event.getEntity().getUUID());
     addServerPlayer(event.getEntity());
   }
 
@@ -94,7 +111,8 @@ public class NetworkHandler {
           INSTANCE.registerMessage(
               id++,
               MessageCommandPlayerCompanion.class,
-              MessageCommandPlayerCompanion::encode,
+              measuredEncoder(
+                  MessageCommandPlayerCompanion.class, MessageCommandPlayerCompanion::encode),
               MessageCommandPlayerCompanion::decode,
               MessageCommandPlayerCompanion::handle);
 
@@ -102,7 +120,7 @@ public class NetworkHandler {
           INSTANCE.registerMessage(
               id++,
               MessagePlayerCompanionData.class,
-              MessagePlayerCompanionData::encode,
+              measuredEncoder(MessagePlayerCompanionData.class, MessagePlayerCompanionData::encode),
               MessagePlayerCompanionData::decode,
               MessagePlayerCompanionData::handle);
 
@@ -110,20 +128,45 @@ public class NetworkHandler {
           INSTANCE.registerMessage(
               id++,
               MessagePlayerCompanionsData.class,
-              MessagePlayerCompanionsData::encode,
+              measuredEncoder(
+                  MessagePlayerCompanionsData.class, MessagePlayerCompanionsData::encode),
               MessagePlayerCompanionsData::decode,
               MessagePlayerCompanionsData::handle);
 
+          // Sync combined Player Companion Data updates: Server -> Client
+          INSTANCE.registerMessage(
+              id++,
+              MessagePlayerCompanionsDataUpdate.class,
+              measuredEncoder(
+                  MessagePlayerCompanionsDataUpdate.class,
+                  MessagePlayerCompanionsDataUpdate::encode),
+              MessagePlayerCompanionsDataUpdate::decode,
+              MessagePlayerCompanionsDataUpdate::handle);
+
           // Skin Change: Client -> Server
           INSTANCE.registerMessage(
               id++,
               MessageSkinChange.class,
-              MessageSkinChange::encode,
+              measuredEncoder(MessageSkinChange.class, MessageSkinChange::encode),
               MessageSkinChange::decode,
               MessageSkinChange::handle);
         });
   }
 
+  /** Wraps the encoder to count the number of sent packets and bytes per message type. */
+  private static <T> BiConsumer<T, FriendlyByteBuf> measuredEncoder(
+      Class<T> messageClass, BiConsumer<T, FriendlyByteBuf> encoder) {
+    String metricName = "network." + messageClass.getSimpleName();
+    MetricCounter packetCounter = MetricsRegistry.getCounter(metricName + ".packets");
+    MetricCounter byteCounter = MetricsRegistry.getCounter(metricName + ".bytes");
+    return (message, buffer) -> {
+      int startIndex = buffer.writerIndex();
+      encoder.accept(message, buffer);
+      packetCounter.increment();
+      byteCounter.add(buffer.writerIndex() - (long) startIndex);
+    };
+  }
+
   /** Send player companion commands. */
   public static void commandPlayerCompanion(
       String playerCompanionUUID, PlayerCompanionCommand command) {
@@ -152,40 +195,137 @@ public class NetworkHandler {
     }
   }
 
-  /** Send full companion data to the owner, if data has changed. */
-  public static void updatePlayerCompanionsData(UUID ownerUUID, CompoundTag companionsData) {
-    if (ownerUUID != null
-        && companionsData != null
-        && !companionsData.isEmpty()
-        && !companionsData.equals(lastCompanionsDataPackage)) {
-      ServerPlayer serverPlayer = getServerPlayer(ownerUUID);
-      if (serverPlayer == null) {
-        return;
-      }
-      INSTANCE.send(
-          PacketDistributor.PLAYER.with(() -> serverPlayer),
-          new MessagePlayerCompanionsData(companionsData));
-      lastCompanionsDataPackage = companionsData;
+  /**
+   * Checks the data versions of all player companions of the owner against the last sent full
+   * data, so that unchanged data do not need to be exported at all.
+   */
+  public static boolean hasPlayerCompanionsDataChanged(
+      UUID ownerUUID, Map<UUID, Integer> companionsDataVersions) {
+    if (ownerUUID == null || companionsDataVersions == null) {
+      return false;
+    }
+    if (companionsDataVersions.equals(lastCompanionsDataPackageMap.get(ownerUUID))) {
+      dataPackageCacheHits.incrementAndGet();
+      return false;
     }
+    return true;
   }
 
-  /** Send specific player companion data to the owner, if data has changed. */
-  public static void updatePlayerCompanionData(
-      UUID playerCompanionUUID, UUID ownerUUID, CompoundTag companionData) {
-    if (playerCompanionUUID != null
-        && ownerUUID != null
-        && companionData != null
-        && !companionData.isEmpty()
-        && !companionData.equals(lastCompanionDataPackage)) {
-      ServerPlayer serverPlayer = getServerPlayer(ownerUUID);
-      if (serverPlayer == null) {
-        return;
-      }
-      INSTANCE.send(
-          PacketDistributor.PLAYER.with(() -> serverPlayer),
-          new MessagePlayerCompanionData(playerCompanionUUID.toString(), companionData));
-      lastCompanionDataPackage = companionData;
+  /** Send full companion data with the given data versions to the owner. */
+  public static boolean updatePlayerCompanionsData(
+      UUID ownerUUID, CompoundTag companionsData, Map<UUID, Integer> companionsDataVersions) {
+    if (ownerUUID == null
+        || companionsData == null
+        || companionsData.isEmpty()
+        || companionsDataVersions == null) {
+      return false;
+    }
+    ServerPlayer serverPlayer = getServerPlayer(ownerUUID);
+    if (serverPlayer == null) {
+      return false;
+    }
+    dataPackageCacheMisses.incrementAndGet();
+    INSTANCE.send(
+        PacketDistributor.PLAYER.with(() -> serverPlayer),
+        new MessagePlayerCompanionsData(companionsData));
+
+    // Full data are replacing all single player companion data on the client.
+    lastCompanionsDataPackageMap.put(ownerUUID, Map.copyOf(companionsDataVersions));
+    ConcurrentHashMap<UUID, Integer> lastCompanionDataPackages = new ConcurrentHashMap<>();
+    lastCompanionDataPackages.putAll(companionsDataVersions);
+    lastCompanionDataPackageMap.put(ownerUUID, lastCompanionDataPackages);
+    return true;
+  }
+
+  /** Mark player companions as known by the client of the owner. */
+  public static void setPlayerCompanionsSynced(UUID ownerUUID, Set<UUID> playerCompanionUUIDs) {
+    if (ownerUUID != null && playerCompanionUUIDs != null) {
+      syncedPlayerCompanionsMap
+          .computeIfAbsent(ownerUUID, key -> ConcurrentHashMap.newKeySet())
+          .addAll(playerCompanionUUIDs);
+    }
+  }
+
+  public static boolean isPlayerCompanionSynced(UUID playerCompanionUUID, UUID ownerUUID) {
+    Set<UUID> syncedPlayerCompanions = syncedPlayerCompanionsMap.get(ownerUUID);
+    return syncedPlayerCompanions != null && syncedPlayerCompanions.contains(playerCompanionUUID);
+  }
+
+  /** Send combined player companion updates, which are written by the sync batch. */
+  public static void updatePlayerCompanionsData(
+      UUID ownerUUID, int entries, FriendlyByteBuf companionsData) {
+    if (ownerUUID == null || entries <= 0 || companionsData == null) {
+      return;
+    }
+    ServerPlayer serverPlayer = getServerPlayer(ownerUUID);
+    if (serverPlayer == null) {
+      return;
     }
+    byte[] data = new byte[companionsData.readableBytes()];
+    companionsData.readBytes(data);
+    INSTANCE.send(
+        PacketDistributor.PLAYER.with(() -> serverPlayer),
+        new MessagePlayerCompanionsDataUpdate(entries, data));
+  }
+
+  /** Send specific player companion data with the given data version to the owner. */
+  public static boolean updatePlayerCompanionData(
+      UUID playerCompanionUUID, UUID ownerUUID, CompoundTag companionData, int dataVersion) {
+    if (playerCompanionUUID == null
+        || ownerUUID == null
+        || companionData == null
+        || companionData.isEmpty()) {
+      return false;
+    }
+    ServerPlayer serverPlayer = getServerPlayer(ownerUUID);
+    if (serverPlayer == null
+        || !hasPlayerCompanionDataChanged(playerCompanionUUID, ownerUUID, dataVersion)) {
+      return false;
+    }
+    INSTANCE.send(
+        PacketDistributor.PLAYER.with(() -> serverPlayer),
+        new MessagePlayerCompanionData(playerCompanionUUID.toString(), companionData));
+    return true;
+  }
+
+  /**
+   * Checks the player companion data version against the last sent data version and remembers it
+   * as sent, if it has changed. This should be checked before exporting the data.
+   */
+  public static boolean hasPlayerCompanionDataChanged(
+      UUID playerCompanionUUID, UUID ownerUUID, int dataVersion) {
+    ConcurrentHashMap<UUID, Integer> lastCompanionDataPackages =
+        lastCompanionDataPackageMap.computeIfAbsent(ownerUUID, key -> new ConcurrentHashMap<>());
+    Integer lastDataVersion = lastCompanionDataPackages.put(playerCompanionUUID, dataVersion);
+    if (lastDataVersion != null && lastDataVersion == dataVersion) {
+      dataPackageCacheHits.incrementAndGet();
+      return false;
+    }
+    dataPackageCacheMisses.incrementAndGet();
+    lastCompanionsDataPackageMap.remove(ownerUUID);
+    return true;
+  }
+
+  /** Client data was changed by other means, so the last sent data are outdated. */
+  public static void invalidatePlayerCompanionData(UUID playerCompanionUUID, UUID ownerUUID) {
+    ConcurrentHashMap<UUID, Integer> lastCompanionDataPackages =
+        lastCompanionDataPackageMap.get(ownerUUID);
+    if (lastCompanionDataPackages != null) {
+      lastCompanionDataPackages.remove(playerCompanionUUID);
+    }
+    lastCompanionsDataPackageMap.remove(ownerUUID);
+  }
+
+  public static void addDataPackageCacheHit() {
+    dataPackageCacheHits.incrementAndGet();
+  }
+
+  public static long getDataPackageCacheHits() {
+    return dataPackageCacheHits.get();
+  }
+
+  public static long getDataPackageCacheMisses() {
+    return dataPackageCacheMisses.get();
   }
 
   public static void addServerPlayer(Player player) {
@@ -206,6 +346,13 @@ public class NetworkHandler {
 
   public static void removeServerPlayer(UUID uuid) {
     serverPlayerMap.remove(uuid);
+    clearPlayerCompanionsSyncCache(uuid);
+  }
+
+  public static void clearPlayerCompanionsSyncCache(UUID ownerUUID) {
+    syncedPlayerCompanionsMap.remove(ownerUUID);
+    lastCompanionDataPackageMap.remove(ownerUUID);
+    lastCompanionsDataPackageMap.remove(ownerUUID);
   }
 
   public static ServerPlayer getServerPlayer(UUID uuid) {
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 Markus Bordihn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package de.markusbordihn.playercompanions.network.message;
+
+import de.markusbordihn.playercompanions.data.PlayerCompanionData;
+import de.markusbordihn.playercompanions.data.PlayerCompanionDataField;
+import de.markusbordihn.playercompanions.data.PlayerCompanionsClientData;
+import io.netty.buffer.Unpooled;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+/**
+ * Combined updates for the player companions of a single owner in a compact and versioned binary
+ * format. Each entry includes either the changed fields or the full meta data of a companion.
+ */
+public class MessagePlayerCompanionsDataUpdate {
+
+  public static final byte VERSION = 1;
+  public static final byte DELTA_ENTRY = 0;
+  public static final byte FULL_ENTRY = 1;
+
+  protected final byte version;
+  protected final int entries;
+  protected final byte[] data;
+
+  public MessagePlayerCompanionsDataUpdate(int entries, byte[] data) {
+    this(VERSION, entries, data);
+  }
+
+  public MessagePlayerCompanionsDataUpdate(byte version, int entries, byte[] data) {
+    this.version = version;
+    this.entries = entries;
+    this.data = data;
+  }
+
+  public static void writeDeltaEntry(
+      FriendlyByteBuf buffer,
+      PlayerCompanionData playerCompanionData,
+      Set<PlayerCompanionDataField> fields) {
+    FriendlyByteBuf entryBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    playerCompanionData.writeDelta(entryBuffer, fields);
+    writeEntry(buffer, DELTA_ENTRY, playerCompanionData.getUUID(), entryBuffer);
+  }
+
+  public static void writeFullEntry(
+      FriendlyByteBuf buffer, UUID playerCompanionUUID, CompoundTag compoundTag) {
+    FriendlyByteBuf entryBuffer = new FriendlyByteBuf(Unpooled.buffer());
+    entryBuffer.writeNbt(compoundTag);
+    writeEntry(buffer, FULL_ENTRY, playerCompanionUUID, entryBuffer);
+  }
+
+  private static void writeEntry(
+      FriendlyByteBuf buffer, byte entryType, UUID playerCompanionUUID, FriendlyByteBuf entry) {
+    // Entries are length prefixed, so that unknown companions could be skipped by the client.
+    buffer.writeByte(entryType);
+    buffer.writeUUID(playerCompanionUUID);
+    buffer.writeVarInt(entry.readableBytes());
+    buffer.writeBytes(entry);
+    entry.release();
+  }
+
+  public static MessagePlayerCompanionsDataUpdate decode(final FriendlyByteBuf buffer) {
+    return new MessagePlayerCompanionsDataUpdate(
+        buffer.readByte(), buffer.readVarInt(), buffer.readByteArray());
+  }
+
+  public static void encode(
+      final MessagePlayerCompanionsDataUpdate message, final FriendlyByteBuf buffer) {
+    buffer.writeByte(message.getVersion());
+    buffer.writeVarInt(message.getEntries());
+    buffer.writeByteArray(message.getData());
+  }
+
+  public static void handle(
+      MessagePlayerCompanionsDataUpdate message, Supplier<NetworkEvent.Context> contextSupplier) {
+    NetworkEvent.Context context = contextSupplier.get();
+    context.enqueueWork(
+        () -> DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> handlePacket(message)));
+    context.setPacketHandled(true);
+  }
+
+  public static void handlePacket(MessagePlayerCompanionsDataUpdate message) {
+    PlayerCompanionsClientData.load(
+        message.getVersion(),
+        message.getEntries(),
+        new FriendlyByteBuf(Unpooled.wrappedBuffer(message.getData())));
+  }
+
+  public byte getVersion() {
+    return this.version;
+  }
+
+  public int getEntries() {
+    return this.entries;
+  }
+
+  public byte[] getData() {
+    return this.data;
+  }
+}
@@ -23,9 +23,14 @@ import de.markusbordihn.playercompanions.Constants;
 import de.markusbordihn.playercompanions.entity.PlayerCompanionEntity;
 import de.markusbordihn.playercompanions.skin.SkinType;
 import de.markusbordihn.playercompanions.utils.PlayersUtils;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
@@ -37,6 +42,12 @@ public class MessageSkinChange {
 
   protected static final Logger log = LogManager.getLogger(Constants.LOG_NAME);
 
+  // Minimum time between username lookups of the same player in milliseconds.
+  private static final long SKIN_LOOKUP_COOLDOWN = 1000L;
+  private static final Map<UUID, Long> lastSkinLookups = new ConcurrentHashMap<>();
+  private static final Map<UUID, String> pendingSkinChanges = new ConcurrentHashMap<>();
+  private static final Map<UUID, MessageSkinChange> queuedSkinChanges = new ConcurrentHashMap<>();
+
   protected final UUID uuid;
   protected final String skin;
   protected final String skinURL;
@@ -82,6 +93,10 @@ public class MessageSkinChange {
       log.error("Unable to get server player for message {} from {}", message, context);
       return;
     }
+    handlePacket(message, serverPlayer);
+  }
+
+  private static void handlePacket(MessageSkinChange message, ServerPlayer serverPlayer) {
     ServerLevel serverLevel = (ServerLevel) serverPlayer.level();
     UUID uuid = message.getUUID();
 
@@ -136,20 +151,28 @@ public class MessageSkinChange {
 
     switch (skinType) {
       case PLAYER_SKIN:
+        UUID userUUID =
+            skinUUID != null && !Constants.BLANK_UUID.equals(skinUUID)
+                ? skinUUID
+                : PlayersUtils.getUUIDfromString(skin);
+        if (userUUID == null && isSkinLookupRateLimited(serverPlayer)) {
+          queueSkinChange(serverPlayer, message);
+          return;
+        }
+        queuedSkinChanges.remove(uuid);
+        pendingSkinChanges.remove(uuid);
         playerCompanionEntity.setSkinType(skinType);
         playerCompanionEntity.setSkinURL(skinURL != null && !skinURL.isBlank() ? skinURL : "");
-        if (skinUUID != null && !Constants.BLANK_UUID.equals(skinUUID)) {
-          playerCompanionEntity.setSkinUUID(skinUUID);
-        } else {
-          UUID userUUID = PlayersUtils.getUserUUID(serverPlayer.getServer(), skin);
-          if (!skin.equals(userUUID.toString())) {
-            log.debug("Converted user {} to UUID {} ...", skin, userUUID);
-          }
+        if (userUUID != null) {
           playerCompanionEntity.setSkinUUID(userUUID);
+        } else {
+          resolveSkinUUID(serverPlayer.getServer(), serverLevel, uuid, skin);
         }
         break;
       case INSECURE_REMOTE_URL:
       case SECURE_REMOTE_URL:
+        queuedSkinChanges.remove(uuid);
+        pendingSkinChanges.remove(uuid);
         playerCompanionEntity.setSkinType(skinType);
         playerCompanionEntity.setSkinURL(skinURL != null && !skinURL.isBlank() ? skinURL : skin);
         playerCompanionEntity.setSkinUUID(
@@ -169,6 +192,67 @@ public class MessageSkinChange {
     }
   }
 
+  private static boolean isSkinLookupRateLimited(ServerPlayer serverPlayer) {
+    long now = System.currentTimeMillis();
+    lastSkinLookups.values().removeIf(lastLookup -> now - lastLookup >= SKIN_LOOKUP_COOLDOWN);
+    return lastSkinLookups.putIfAbsent(serverPlayer.getUUID(), now) != null;
+  }
+
+  private static void queueSkinChange(ServerPlayer serverPlayer, MessageSkinChange message) {
+    // Only keep the latest skin change per companion and apply it after the cooldown.
+    UUID uuid = message.getUUID();
+    if (queuedSkinChanges.put(uuid, message) != null) {
+      log.debug("Replaced queued skin change for {} with {}", uuid, message.getSkin());
+      return;
+    }
+    Long lastSkinLookup = lastSkinLookups.get(serverPlayer.getUUID());
+    long delay =
+        lastSkinLookup != null
+            ? Math.max(0L, lastSkinLookup + SKIN_LOOKUP_COOLDOWN - System.currentTimeMillis())
+            : 0L;
+    log.debug(
+        "Queued skin {} for {} from {} for {} ms", message.getSkin(), uuid, serverPlayer, delay);
+    MinecraftServer server = serverPlayer.getServer();
+    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+        .execute(() -> server.execute(() -> applyQueuedSkinChange(serverPlayer, uuid)));
+  }
+
+  private static void applyQueuedSkinChange(ServerPlayer serverPlayer, UUID uuid) {
+    // Ignore the queued skin change, if it was already replaced or the player has left.
+    MessageSkinChange message = queuedSkinChanges.remove(uuid);
+    if (message == null || serverPlayer.hasDisconnected()) {
+      return;
+    }
+    handlePacket(message, serverPlayer);
+  }
+
+  private static void resolveSkinUUID(
+      MinecraftServer server, ServerLevel serverLevel, UUID uuid, String skin) {
+    // Resolve username in the background and apply the skin UUID on a later server tick.
+    pendingSkinChanges.put(uuid, skin);
+    PlayersUtils.getUserUUIDAsync(server, skin)
+        .thenAccept(
+            userUUID -> server.execute(() -> applySkinUUID(serverLevel, uuid, skin, userUUID)));
+  }
+
+  private static void applySkinUUID(
+      ServerLevel serverLevel, UUID uuid, String skin, UUID userUUID) {
+    // Ignore outdated results, if the skin was changed in the meantime.
+    if (!pendingSkinChanges.remove(uuid, skin)) {
+      log.debug("Ignore outdated skin {} for {}", skin, uuid);
+      return;
+    }
+    if (userUUID == null) {
+      log.warn("Unable to get user UUID for skin {} of {}", skin, uuid);
+      return;
+    }
+    if (serverLevel.getEntity(uuid) instanceof PlayerCompanionEntity playerCompanionEntity
+        && playerCompanionEntity.getSkinType() == SkinType.PLAYER_SKIN) {
+      log.debug("Converted user {} to UUID {} ...", skin, userUUID);
+      playerCompanionEntity.setSkinUUID(userUUID);
+    }
+  }
+
   public UUID getUUID() {
     return this.uuid;
   }
@@ -19,24 +19,40 @@
 
 package de.markusbordihn.playercompanions.utils;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
 import com.mojang.authlib.GameProfile;
 import de.markusbordihn.playercompanions.Constants;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.Util;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.players.GameProfileCache;
+import net.minecraftforge.fml.loading.FMLPaths;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -48,8 +64,21 @@ public class PlayersUtils {
   private static final String USER_REGEX = "^\\w{2,16}$";
   private static final String TEXTURES_STRING = "textures";
 
-  // Internal Cache
-  private static UUID lastUserUUIDForUserTexture;
+  // User texture cache with separate TTLs for found and missing textures.
+  private static final long USER_TEXTURE_TTL = 60L * 60L * 1000L;
+  private static final long USER_TEXTURE_NEGATIVE_TTL = 5L * 60L * 1000L;
+  private static final String USER_TEXTURE_CACHE_FILE_NAME = "user_texture_cache.json";
+  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+  private static final Map<UUID, CachedUserTexture> userTextureCache = new ConcurrentHashMap<>();
+  private static final Map<UUID, CompletableFuture<String>> pendingUserTextureRequests =
+      new ConcurrentHashMap<>();
+  private static final UserTextureResolver SESSION_SERVER_RESOLVER =
+      PlayersUtils::getUserTextureFromSessionServer;
+  private static UserTextureResolver userTextureResolver = SESSION_SERVER_RESOLVER;
+  private static boolean userTextureCacheLoaded = false;
+
+  // Pending user UUID lookups by lower case username.
+  private static final Set<String> pendingUserUUIDRequests = ConcurrentHashMap.newKeySet();
 
   protected PlayersUtils() {}
 
@@ -82,6 +111,46 @@ public class PlayersUtils {
     return null;
   }
 
+  /**
+   * Resolves the user UUID over the asynchronous lookup of the profile cache, because the profile
+   * cache could perform a blocking profile lookup for unknown usernames. Identical pending lookups
+   * are shared by the profile cache itself.
+   */
+  public static CompletableFuture<UUID> getUserUUIDAsync(MinecraftServer server, String username) {
+    if (server == null || username == null || username.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    // Skip lookup, if username is already a user uuid.
+    UUID uuid = getUUIDfromString(username);
+    if (uuid != null) {
+      return CompletableFuture.completedFuture(uuid);
+    }
+
+    final GameProfileCache gameProfileCache = server.getProfileCache();
+    if (gameProfileCache == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    String requestKey = username.toLowerCase(Locale.ROOT);
+    pendingUserUUIDRequests.add(requestKey);
+    return gameProfileCache
+        .getAsync(username)
+        .handle(
+            (gameProfile, throwable) -> {
+              pendingUserUUIDRequests.remove(requestKey);
+              if (throwable != null) {
+                log.error("Unable to get user UUID for {}, because of: {}", username, throwable);
+                return null;
+              }
+              return gameProfile.map(GameProfile::getId).orElse(null);
+            });
+  }
+
+  public static int getNumberOfPendingUserUUIDRequests() {
+    return pendingUserUUIDRequests.size();
+  }
+
   public static UUID getUUIDfromString(String uuidString) {
     try {
       UUID uuid = UUID.fromString(uuidString);
@@ -94,27 +163,133 @@ public class PlayersUtils {
     return null;
   }
 
+  public static void setUserTextureResolver(UserTextureResolver resolver) {
+    userTextureResolver = resolver != null ? resolver : SESSION_SERVER_RESOLVER;
+    userTextureCache.clear();
+  }
+
+  /**
+   * Returns the user texture URL from the cache or resolves it, which could block the current
+   * thread. Use {@link #getUserTextureAsync(UUID)} on the main or render thread instead.
+   */
   public static String getUserTexture(UUID userUUID) {
-    // Simple reload protected to avoid spawning to the session server.
-    if (lastUserUUIDForUserTexture != null && lastUserUUIDForUserTexture.equals(userUUID)) {
-      log.error("Ignore duplicated user texture request for {}!", userUUID);
-      return null;
+    return getUserTextureAsync(userUUID).join();
+  }
+
+  public static CompletableFuture<String> getUserTextureAsync(UUID userUUID) {
+    if (userUUID == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    loadUserTextureCache();
+
+    // Return cached texture URL or cached missing texture, if not expired.
+    CachedUserTexture cachedUserTexture = userTextureCache.get(userUUID);
+    if (cachedUserTexture != null && !cachedUserTexture.isExpired()) {
+      return CompletableFuture.completedFuture(
+          cachedUserTexture.url.isEmpty() ? null : cachedUserTexture.url);
+    }
+
+    // Combine multiple requests for the same user into a single request.
+    CompletableFuture<String> request = new CompletableFuture<>();
+    CompletableFuture<String> pendingRequest =
+        pendingUserTextureRequests.putIfAbsent(userUUID, request);
+    if (pendingRequest != null) {
+      return pendingRequest;
+    }
+    Util.ioPool()
+        .execute(
+            () -> {
+              try {
+                request.complete(resolveUserTexture(userUUID));
+              } finally {
+                pendingUserTextureRequests.remove(userUUID, request);
+              }
+            });
+    return request;
+  }
+
+  private static String resolveUserTexture(UUID userUUID) {
+    String url = null;
+    try {
+      url = userTextureResolver.resolve(userUUID);
+    } catch (IOException | RuntimeException exception) {
+      log.error("Unable to get user texture for {}, because of: {}", userUUID, exception);
+    }
+
+    // Cache missing textures for a shorter time, to avoid spamming the session server.
+    long now = System.currentTimeMillis();
+    if (url == null || url.isEmpty()) {
+      userTextureCache.put(userUUID, new CachedUserTexture("", now + USER_TEXTURE_NEGATIVE_TTL));
+      url = null;
+    } else {
+      userTextureCache.put(userUUID, new CachedUserTexture(url, now + USER_TEXTURE_TTL));
     }
-    lastUserUUIDForUserTexture = userUUID;
+    saveUserTextureCache();
+    return url;
+  }
 
+  private static String getUserTextureFromSessionServer(UUID userUUID) throws IOException {
     // Create sessions request and parse result, if any.
     String sessionURL =
         String.format("https://sessionserver.mojang.com/session/minecraft/profile/%s", userUUID);
+    String data = IOUtils.toString(new URL(sessionURL), StandardCharsets.UTF_8);
+    if (data == null || data.isEmpty()) {
+      log.error("Unable to get user texture with {}", sessionURL);
+      return "";
+    }
+    return getUserTextureFromSessionResponse(data);
+  }
+
+  private static Path getUserTextureCacheFile() {
+    return FMLPaths.GAMEDIR.get().resolve(Constants.MOD_ID).resolve(USER_TEXTURE_CACHE_FILE_NAME);
+  }
+
+  private static synchronized void loadUserTextureCache() {
+    if (userTextureCacheLoaded) {
+      return;
+    }
+    userTextureCacheLoaded = true;
+    Path cacheFile = getUserTextureCacheFile();
+    if (!cacheFile.toFile().exists()) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+      Map<String, CachedUserTexture> cachedUserTextures =
+          GSON.fromJson(reader, new TypeToken<Map<String, CachedUserTexture>>() {}.getType());
+      if (cachedUserTextures != null) {
+        for (Map.Entry<String, CachedUserTexture> entry : cachedUserTextures.entrySet()) {
+          UUID uuid = getUUIDfromString(entry.getKey());
+          CachedUserTexture cachedUserTexture = entry.getValue();
+          if (uuid != null
+              && cachedUserTexture != null
+              && cachedUserTexture.url != null
+              && !cachedUserTexture.isExpired()) {
+            userTextureCache.put(uuid, cachedUserTexture);
+          }
+        }
+      }
+    } catch (IOException | JsonParseException exception) {
+      log.error("Unable to load user texture cache {}, because of: {}", cacheFile, exception);
+    }
+  }
+
+  private static synchronized void saveUserTextureCache() {
+    Path cacheFile = getUserTextureCacheFile();
+    Map<String, CachedUserTexture> cachedUserTextures = new HashMap<>();
+    for (Map.Entry<UUID, CachedUserTexture> entry : userTextureCache.entrySet()) {
+      if (!entry.getValue().isExpired()) {
+        cachedUserTextures.put(entry.getKey().toString(), entry.getValue());
+      }
+    }
     try {
-      String data = IOUtils.toString(new URL(sessionURL), StandardCharsets.UTF_8);
-      if (data == null || data.isEmpty()) {
-        log.error("Unable to get user texture with {}", sessionURL);
-        return null;
+      Files.createDirectories(cacheFile.getParent());
+      Path tempFile = cacheFile.resolveSibling(USER_TEXTURE_CACHE_FILE_NAME + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        GSON.toJson(cachedUserTextures, writer);
       }
-      return getUserTextureFromSessionResponse(data);
-    } catch (IOException ioException) {
-      log.error("Unable to get user texture with {}, because of: {}", sessionURL, ioException);
-      return null;
+      Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException exception) {
+      log.error("Unable to save user texture cache {}, because of: {}", cacheFile, exception);
     }
   }
 
@@ -212,4 +387,18 @@ public class PlayersUtils {
     }
     return true;
   }
+
+  private static class CachedUserTexture {
+    private final String url;
+    private final long expires;
+
+    CachedUserTexture(String url, long expires) {
+      this.url = url;
+      this.expires = expires;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() > this.expires;
+    }
+  }
 }